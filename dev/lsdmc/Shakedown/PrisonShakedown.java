@@ -3,6 +3,7 @@ package dev.lsdmc.Shakedown;
 import dev.lsdmc.Shakedown.config.ConfigManager;
 import dev.lsdmc.Shakedown.data.DataManager;
 import dev.lsdmc.Shakedown.shakedown.ShakedownManager;
+import dev.lsdmc.Shakedown.util.Debug;
 import org.bukkit.plugin.java.JavaPlugin;
 
 /**
@@ -33,7 +34,8 @@ public final class PrisonShakedown extends JavaPlugin {
         // Load configuration and persistent data
         saveDefaultConfig();
         configManager = new ConfigManager(this);
-        dataManager = new DataManager(this);
+        Debug.configure(configManager, getLogger());
+        dataManager = new DataManager(this, configManager);
 
         // Instantiate the core manager
         shakedownManager = new ShakedownManager(this, configManager, dataManager);
@@ -44,14 +46,20 @@ public final class PrisonShakedown extends JavaPlugin {
 
         // Register listeners
         getServer().getPluginManager().registerEvents(shakedownManager, this);
+        getServer().getPluginManager().registerEvents(shakedownManager.getContrabandIndex(), this);
+        getServer().getPluginManager().registerEvents(shakedownManager.getTabCompleter(), this);
     }
 
     @Override
     public void onDisable() {
-        // Persist data on shutdown
+        if (shakedownManager != null) {
+            shakedownManager.shutdown();
+        }
+        // Flush pending cooldown writes on shutdown
         if (dataManager != null) {
-            dataManager.saveData();
+            dataManager.close();
         }
+        Debug.shutdown();
         // no audience resources to close
     }
 }
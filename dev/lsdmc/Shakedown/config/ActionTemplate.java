@@ -0,0 +1,92 @@
+package dev.lsdmc.Shakedown.config;
+
+import java.util.Locale;
+
+/**
+ * A configured reward or punishment action, compiled once at load. A plain
+ * line is a console command; {@code [deposit] <player> <amount>} and
+ * {@code [withdraw] <player> <amount>} move money through the economy
+ * directly, and {@code [console]} may be written to be explicit. The
+ * player and amount take the same placeholders as commands.
+ */
+public final class ActionTemplate {
+    public enum Type { CONSOLE, DEPOSIT, WITHDRAW }
+
+    private final String raw;
+    private final Type type;
+    // The command for CONSOLE, the player name otherwise
+    private final CommandTemplate target;
+    private final CommandTemplate amount;
+
+    private ActionTemplate(String raw, Type type, CommandTemplate target, CommandTemplate amount) {
+        this.raw = raw;
+        this.type = type;
+        this.target = target;
+        this.amount = amount;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the line has an unknown prefix or a
+     *                                  malformed economy action
+     */
+    public static ActionTemplate compile(String raw) {
+        String line = raw.strip();
+        if (!line.startsWith("[")) {
+            return new ActionTemplate(raw, Type.CONSOLE, CommandTemplate.compile(line), null);
+        }
+        int close = line.indexOf(']');
+        if (close < 0) throw new IllegalArgumentException("unclosed action prefix");
+        String prefix = line.substring(1, close).strip().toLowerCase(Locale.ROOT);
+        String rest = line.substring(close + 1).strip();
+        Type type = switch (prefix) {
+            case "console" -> Type.CONSOLE;
+            case "deposit" -> Type.DEPOSIT;
+            case "withdraw" -> Type.WITHDRAW;
+            default -> throw new IllegalArgumentException("unknown action [" + prefix + "]");
+        };
+        if (type == Type.CONSOLE) {
+            return new ActionTemplate(raw, type, CommandTemplate.compile(rest), null);
+        }
+        String[] parts = rest.split("\\s+");
+        if (parts.length != 2) throw new IllegalArgumentException("expected [" + prefix + "] <player> <amount>");
+        // Amounts with placeholders can only be checked once they are filled in
+        if (parts[1].indexOf('{') < 0) parseAmount(parts[1]);
+        return new ActionTemplate(raw, type, CommandTemplate.compile(parts[0]), CommandTemplate.compile(parts[1]));
+    }
+
+    public Type type() {
+        return type;
+    }
+
+    /**
+     * @return the console command, or the player name for economy actions
+     */
+    public String target(TemplateValues values) {
+        return target.format(values);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the filled in amount is not a positive number
+     */
+    public double amount(TemplateValues values) {
+        return parseAmount(amount.format(values));
+    }
+
+    @Override
+    public String toString() {
+        return raw;
+    }
+
+    private static double parseAmount(String value) {
+        double amount;
+        try {
+            amount = Double.parseDouble(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("invalid amount '" + value + "'");
+        }
+        if (!(amount > 0) || Double.isInfinite(amount)) {
+            throw new IllegalArgumentException("amount must be positive: " + value);
+        }
+        return amount;
+    }
+}
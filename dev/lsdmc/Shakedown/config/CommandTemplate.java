@@ -0,0 +1,60 @@
+package dev.lsdmc.Shakedown.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A configured console command, split once at load into literal segments
+ * and {@link TemplateKey placeholders}, so formatting it is a single pass
+ * of appends instead of a {@code String.replace} per placeholder. Unknown
+ * {@code {names}} are kept as literal text.
+ */
+public final class CommandTemplate {
+    private final String raw;
+    // literals[i] comes before keys[i]; the last literal ends the command
+    private final String[] literals;
+    private final TemplateKey[] keys;
+
+    private CommandTemplate(String raw, String[] literals, TemplateKey[] keys) {
+        this.raw = raw;
+        this.literals = literals;
+        this.keys = keys;
+    }
+
+    public static CommandTemplate compile(String raw) {
+        List<String> literals = new ArrayList<>();
+        List<TemplateKey> keys = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < raw.length()) {
+            char c = raw.charAt(i);
+            int end = c == '{' ? raw.indexOf('}', i + 1) : -1;
+            TemplateKey key = end > 0 ? TemplateKey.byKey(raw.substring(i + 1, end)) : null;
+            if (key == null) {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            literals.add(literal.toString());
+            literal.setLength(0);
+            keys.add(key);
+            i = end + 1;
+        }
+        literals.add(literal.toString());
+        return new CommandTemplate(raw, literals.toArray(new String[0]), keys.toArray(new TemplateKey[0]));
+    }
+
+    public String format(TemplateValues values) {
+        if (keys.length == 0) return literals[0];
+        StringBuilder out = new StringBuilder(raw.length() + 16 * keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            out.append(literals[i]).append(values.get(keys[i]));
+        }
+        return out.append(literals[keys.length]).toString();
+    }
+
+    @Override
+    public String toString() {
+        return raw;
+    }
+}
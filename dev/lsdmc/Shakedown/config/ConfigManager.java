@@ -11,6 +11,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
 
 /**
  * Handles reading and exposing values from the plugin’s configuration file.
@@ -21,11 +22,50 @@ public final class ConfigManager {
     private final Plugin plugin;
     private final List<String> contrabandMaterials;
     private final List<String> contrabandCustomData;
-    private final List<String> rewardCommands;
-    private final List<String> punishmentCommands;
-    private final List<String> noContrabandCommands;
+    private final List<ContrabandRule> contrabandRules;
+    private final List<ActionTemplate> rewardActions;
+    private final List<ActionTemplate> punishmentActions;
+    private final List<ActionTemplate> noContrabandActions;
+    private final MessageTemplate startBroadcast;
+    private final MessageTemplate searchTitle;
+    private final MessageTemplate searchSubtitle;
+    private final MessageTemplate contrabandFoundMessage;
+    private final MessageTemplate noContrabandMessage;
+    private final MessageTemplate confiscatedMessage;
     private final Duration cooldown;
     private final String guardGroup;
+    private final ScanMode scanMode;
+    private final int scanThreads;
+    private final double scanBudgetMillis;
+    private final int scanBudgetBlocks;
+    private final int sweepMaxConcurrent;
+    private final double sweepBudgetMillis;
+    private final int sweepBudgetBlocks;
+    private final boolean autoEnabled;
+    private final Duration autoInterval;
+    private final int autoPerRun;
+    private final String autoGuardName;
+    private final UUID autoGuardUuid;
+    private final Duration previewTtl;
+    private final double actionBudgetMillis;
+    private final int actionMaxPerTick;
+    private final int actionAttempts;
+    private final Duration actionRetryDelay;
+    private final int nestedMaxDepth;
+    private final int nestedItemBudget;
+    private final boolean indexEnabled;
+    private final Duration indexMaxAge;
+    private final int indexMaxPositions;
+    private final boolean armIndexEnabled;
+    private final Duration armIndexRebuildInterval;
+    private final StorageBackend storageBackend;
+    private final boolean storageFsync;
+    private final Duration storageFlushInterval;
+    private final int storageCompactThreshold;
+    private final int storageCacheSize;
+    private final long historySegmentBytes;
+    private final String metricsFile;
+    private final Duration metricsExportInterval;
     private final boolean debugEnabled;
     private final boolean debugVerbose;
     private final boolean debugConsole;
@@ -39,41 +79,209 @@ public final class ConfigManager {
         if (contrabandSection != null) {
             contrabandMaterials = new ArrayList<>(contrabandSection.getStringList("materials"));
             contrabandCustomData = new ArrayList<>(contrabandSection.getStringList("custom-model-data"));
+            contrabandRules = new ArrayList<>();
+            for (java.util.Map<?, ?> map : contrabandSection.getMapList("rules")) {
+                contrabandRules.add(ContrabandRule.fromMap(map, plugin.getLogger()));
+            }
         } else {
             contrabandMaterials = new ArrayList<>();
             contrabandCustomData = new ArrayList<>();
+            contrabandRules = new ArrayList<>();
         }
 
-        // Load reward commands executed when a guard successfully completes a
-        // shakedown. Placeholders %guard% and %player% are replaced at runtime.
+        // Load reward actions executed when a guard successfully completes a
+        // shakedown. They are compiled once; see TemplateKey for the placeholders.
         ConfigurationSection rewardsSection = config.getConfigurationSection("rewards");
         if (rewardsSection != null) {
-            rewardCommands = new ArrayList<>(rewardsSection.getStringList("success.commands"));
+            rewardActions = compileActions(rewardsSection.getStringList("success.commands"), "rewards.success.commands");
         } else {
-            rewardCommands = Collections.emptyList();
+            rewardActions = Collections.emptyList();
         }
 
         // Load punishments executed when contraband is found
         ConfigurationSection punishSection = config.getConfigurationSection("punishments");
         if (punishSection != null) {
-            punishmentCommands = new ArrayList<>(punishSection.getStringList("contraband-found.commands"));
-            noContrabandCommands = new ArrayList<>(punishSection.getStringList("no-contraband.commands"));
+            punishmentActions = compileActions(punishSection.getStringList("contraband-found.commands"),
+                    "punishments.contraband-found.commands");
+            noContrabandActions = compileActions(punishSection.getStringList("no-contraband.commands"),
+                    "punishments.no-contraband.commands");
         } else {
-            punishmentCommands = Collections.emptyList();
-            noContrabandCommands = Collections.emptyList();
+            punishmentActions = Collections.emptyList();
+            noContrabandActions = Collections.emptyList();
         }
 
+        // Shakedown messages, MiniMessage with the same placeholders as commands
+        ConfigurationSection messages = config.getConfigurationSection("messages");
+        startBroadcast = message(messages, "start-broadcast",
+                "!<#9D4EDD><bold>Shakedown</bold></#9D4EDD> <#ADB5BD>»</#ADB5BD> <#FF6B6B>Region </#FF6B6B><white>{region}</white> <#ADB5BD>[</#ADB5BD><#06FFA5>{player}</#06FFA5><#ADB5BD>]</#ADB5BD>");
+        searchTitle = message(messages, "search-title", "<#9D4EDD><bold>Shakedown</bold></#9D4EDD>");
+        searchSubtitle = message(messages, "search-subtitle", "<#FF6B6B>Your cell is being searched!</#FF6B6B>");
+        contrabandFoundMessage = message(messages, "contraband-found", "<gold>Contraband found: <white>{items}</white></gold>");
+        noContrabandMessage = message(messages, "no-contraband", "<green>No contraband found.</green>");
+        confiscatedMessage = message(messages, "confiscated", "<red>Contraband has been confiscated from your cell.</red>");
+
         // Shakedown options
         ConfigurationSection shakedown = config.getConfigurationSection("shakedown");
         if (shakedown != null) {
             String cooldownString = shakedown.getString("cooldown", "48h");
-            cooldown = parseDuration(cooldownString);
+            cooldown = parseDuration(cooldownString, Duration.ofHours(48), "shakedown.cooldown");
             guardGroup = Objects.requireNonNullElse(shakedown.getString("region-group"), "guards");
         } else {
             cooldown = java.time.Duration.ofHours(48);
             guardGroup = "guards";
         }
 
+        // Scan strategy options
+        ConfigurationSection scan = config.getConfigurationSection("shakedown.scan");
+        int defaultThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        if (scan != null) {
+            String modeString = scan.getString("mode", "sync");
+            scanMode = ScanMode.parse(modeString, ScanMode.SYNC);
+            if (!scanMode.name().equalsIgnoreCase(modeString.trim())) {
+                plugin.getLogger().warning("Unknown shakedown.scan.mode '" + modeString + "'. Falling back to sync.");
+            }
+            int threads = scan.getInt("threads", 0);
+            scanThreads = threads > 0 ? threads : defaultThreads;
+            scanBudgetMillis = scan.getDouble("budget-ms", 5.0);
+            scanBudgetBlocks = scan.getInt("budget-blocks", 0);
+        } else {
+            scanMode = ScanMode.SYNC;
+            scanThreads = defaultThreads;
+            scanBudgetMillis = 5.0;
+            scanBudgetBlocks = 0;
+        }
+
+        // Bulk sweep options
+        ConfigurationSection sweep = config.getConfigurationSection("shakedown.sweep");
+        if (sweep != null) {
+            sweepMaxConcurrent = Math.max(1, sweep.getInt("max-concurrent", 4));
+            sweepBudgetMillis = sweep.getDouble("budget-ms", 10.0);
+            sweepBudgetBlocks = sweep.getInt("budget-blocks", 0);
+        } else {
+            sweepMaxConcurrent = 4;
+            sweepBudgetMillis = 10.0;
+            sweepBudgetBlocks = 0;
+        }
+
+        // Automatic random shakedowns
+        ConfigurationSection auto = config.getConfigurationSection("shakedown.auto");
+        if (auto != null) {
+            autoEnabled = auto.getBoolean("enabled", false);
+            autoInterval = parseDuration(auto.getString("interval", "10m"), Duration.ofMinutes(10),
+                    "shakedown.auto.interval");
+            autoPerRun = Math.max(1, auto.getInt("per-run", 1));
+            autoGuardName = auto.getString("guard-name", "Warden");
+            UUID guardUuid;
+            try {
+                guardUuid = UUID.fromString(auto.getString("guard-uuid", "00000000-0000-0000-0000-000000000000"));
+            } catch (IllegalArgumentException ex) {
+                plugin.getLogger().warning("Invalid shakedown.auto.guard-uuid in config.yml. Falling back to the nil UUID.");
+                guardUuid = new UUID(0, 0);
+            }
+            autoGuardUuid = guardUuid;
+        } else {
+            autoEnabled = false;
+            autoInterval = Duration.ofMinutes(10);
+            autoPerRun = 1;
+            autoGuardName = "Warden";
+            autoGuardUuid = new UUID(0, 0);
+        }
+
+        // How long /shakedown preview results can be confirmed
+        ConfigurationSection preview = config.getConfigurationSection("shakedown.preview");
+        if (preview != null) {
+            previewTtl = parseDuration(preview.getString("ttl", "2m"), Duration.ofMinutes(2), "shakedown.preview.ttl");
+        } else {
+            previewTtl = Duration.ofMinutes(2);
+        }
+
+        // How fast queued reward and punishment actions are run
+        ConfigurationSection actions = config.getConfigurationSection("shakedown.actions");
+        if (actions != null) {
+            actionBudgetMillis = actions.getDouble("budget-ms", 1.0);
+            actionMaxPerTick = Math.max(1, actions.getInt("max-per-tick", 10));
+            actionAttempts = Math.max(1, actions.getInt("attempts", 3));
+            actionRetryDelay = parseDuration(actions.getString("retry-delay", "1s"), Duration.ofSeconds(1),
+                    "shakedown.actions.retry-delay");
+        } else {
+            actionBudgetMillis = 1.0;
+            actionMaxPerTick = 10;
+            actionAttempts = 3;
+            actionRetryDelay = Duration.ofSeconds(1);
+        }
+
+        // Nested container (shulker box, bundle) options
+        ConfigurationSection nested = config.getConfigurationSection("shakedown.nested");
+        if (nested != null) {
+            nestedMaxDepth = Math.max(0, nested.getInt("max-depth", 2));
+            nestedItemBudget = Math.max(0, nested.getInt("item-budget", 2000));
+        } else {
+            nestedMaxDepth = 2;
+            nestedItemBudget = 2000;
+        }
+
+        // Event-maintained contraband index options
+        ConfigurationSection index = config.getConfigurationSection("shakedown.index");
+        if (index != null) {
+            indexEnabled = index.getBoolean("enabled", false);
+            indexMaxAge = parseDuration(index.getString("max-age", "6h"), Duration.ofHours(6), "shakedown.index.max-age");
+            indexMaxPositions = Math.max(1, index.getInt("max-positions", 512));
+        } else {
+            indexEnabled = false;
+            indexMaxAge = Duration.ofHours(6);
+            indexMaxPositions = 512;
+        }
+
+        // ARM owner/renter/member reverse index options
+        ConfigurationSection armIndex = config.getConfigurationSection("shakedown.arm-index");
+        if (armIndex != null) {
+            armIndexEnabled = armIndex.getBoolean("enabled", true);
+            armIndexRebuildInterval = parseDuration(armIndex.getString("rebuild-interval", "30m"),
+                    Duration.ofMinutes(30), "shakedown.arm-index.rebuild-interval");
+        } else {
+            armIndexEnabled = true;
+            armIndexRebuildInterval = Duration.ofMinutes(30);
+        }
+
+        // Cooldown storage options
+        ConfigurationSection storage = config.getConfigurationSection("storage");
+        if (storage != null) {
+            String backendString = storage.getString("backend", "log");
+            storageBackend = StorageBackend.parse(backendString, StorageBackend.LOG);
+            if (!storageBackend.name().equalsIgnoreCase(backendString.trim())) {
+                plugin.getLogger().warning("Unknown storage.backend '" + backendString + "'. Falling back to log.");
+            }
+            String durability = storage.getString("durability", "buffered").trim().toLowerCase(Locale.ROOT);
+            if (!durability.equals("buffered") && !durability.equals("fsync")) {
+                plugin.getLogger().warning("Unknown storage.durability '" + durability + "'. Falling back to buffered.");
+            }
+            storageFsync = durability.equals("fsync");
+            Duration flush = parseDuration(storage.getString("flush-interval", "1s"), Duration.ofSeconds(1),
+                    "storage.flush-interval");
+            storageFlushInterval = flush.isZero() || flush.isNegative() ? Duration.ofSeconds(1) : flush;
+            storageCompactThreshold = Math.max(1, storage.getInt("compact-after", 10000));
+            storageCacheSize = Math.max(16, storage.getInt("cache-size", 10000));
+            historySegmentBytes = Math.max(16, storage.getLong("history-segment-kb", 1024)) * 1024;
+        } else {
+            storageBackend = StorageBackend.LOG;
+            storageFsync = false;
+            storageFlushInterval = Duration.ofSeconds(1);
+            storageCompactThreshold = 10000;
+            storageCacheSize = 10000;
+            historySegmentBytes = 1024 * 1024;
+        }
+
+        // Metrics export options
+        ConfigurationSection metrics = config.getConfigurationSection("metrics");
+        if (metrics != null) {
+            metricsFile = metrics.getString("file", "metrics.prom");
+            metricsExportInterval = parseDuration(metrics.getString("export-interval", "30s"), Duration.ofSeconds(30),
+                    "metrics.export-interval");
+        } else {
+            metricsFile = "metrics.prom";
+            metricsExportInterval = Duration.ofSeconds(30);
+        }
+
         // Debug options
         ConfigurationSection debug = config.getConfigurationSection("debug");
         if (debug != null) {
@@ -87,15 +295,37 @@ public final class ConfigManager {
         }
     }
 
+    private List<ActionTemplate> compileActions(List<String> actions, String key) {
+        List<ActionTemplate> compiled = new ArrayList<>(actions.size());
+        for (String action : actions) {
+            try {
+                compiled.add(ActionTemplate.compile(action));
+            } catch (IllegalArgumentException ex) {
+                plugin.getLogger().warning("Skipping invalid action '" + action + "' in " + key + ": " + ex.getMessage());
+            }
+        }
+        return compiled;
+    }
+
+    private MessageTemplate message(ConfigurationSection messages, String key, String fallback) {
+        String raw = messages != null ? messages.getString(key, fallback) : fallback;
+        try {
+            return MessageTemplate.compile(raw);
+        } catch (RuntimeException ex) {
+            plugin.getLogger().warning("Invalid message messages." + key + " in config.yml (" + ex.getMessage()
+                    + "). Falling back to the default.");
+            return MessageTemplate.compile(fallback);
+        }
+    }
+
     /**
      * Parses a duration string such as "48h", "5m" or "2d" into a
-     * {@link Duration} instance. If parsing fails the fallback of 48 hours is
-     * returned.
+     * {@link Duration} instance. If parsing fails the fallback is returned.
      */
-    private Duration parseDuration(String input) {
+    private Duration parseDuration(String input, Duration fallback, String key) {
         try {
             if (input == null) {
-                return Duration.ofHours(48);
+                return fallback;
             }
             input = input.trim().toLowerCase(Locale.ROOT);
             long value = Long.parseLong(input.replaceAll("[^0-9]", ""));
@@ -114,8 +344,9 @@ public final class ConfigManager {
                 return Duration.ofHours(value);
             }
         } catch (NumberFormatException ex) {
-            plugin.getLogger().warning("Invalid cooldown format in config.yml. Falling back to 48h.");
-            return Duration.ofHours(48);
+            plugin.getLogger().warning("Invalid duration format for " + key + " in config.yml. Falling back to "
+                    + fallback.toString().substring(2).toLowerCase(Locale.ROOT) + ".");
+            return fallback;
         }
     }
 
@@ -127,16 +358,56 @@ public final class ConfigManager {
         return Collections.unmodifiableList(contrabandCustomData);
     }
 
-    public List<String> getRewardCommands() {
-        return Collections.unmodifiableList(rewardCommands);
+    public List<ContrabandRule> getContrabandRules() {
+        return Collections.unmodifiableList(contrabandRules);
+    }
+
+    public List<ActionTemplate> getRewardActions() {
+        return Collections.unmodifiableList(rewardActions);
     }
 
-    public List<String> getPunishmentCommands() {
-        return Collections.unmodifiableList(punishmentCommands);
+    public List<ActionTemplate> getPunishmentActions() {
+        return Collections.unmodifiableList(punishmentActions);
     }
 
-    public List<String> getNoContrabandCommands() {
-        return Collections.unmodifiableList(noContrabandCommands);
+    public List<ActionTemplate> getNoContrabandActions() {
+        return Collections.unmodifiableList(noContrabandActions);
+    }
+
+    /**
+     * Broadcast to the server when a shakedown starts.
+     */
+    public MessageTemplate getStartBroadcast() {
+        return startBroadcast;
+    }
+
+    public MessageTemplate getSearchTitle() {
+        return searchTitle;
+    }
+
+    public MessageTemplate getSearchSubtitle() {
+        return searchSubtitle;
+    }
+
+    /**
+     * Sent to the guard when contraband was confiscated.
+     */
+    public MessageTemplate getContrabandFoundMessage() {
+        return contrabandFoundMessage;
+    }
+
+    /**
+     * Sent to the guard after a clean search.
+     */
+    public MessageTemplate getNoContrabandMessage() {
+        return noContrabandMessage;
+    }
+
+    /**
+     * Sent to the prisoner when contraband was confiscated.
+     */
+    public MessageTemplate getConfiscatedMessage() {
+        return confiscatedMessage;
     }
 
     public Duration getCooldown() {
@@ -147,6 +418,227 @@ public final class ConfigManager {
         return guardGroup;
     }
 
+    public ScanMode getScanMode() {
+        return scanMode;
+    }
+
+    /**
+     * Number of worker threads used by the snapshot scan mode. A value of 0
+     * (or less) in the config means one per available core minus one.
+     */
+    public int getScanThreads() {
+        return scanThreads;
+    }
+
+    /**
+     * Main thread time, in milliseconds, the incremental scan mode may spend
+     * per tick across all running shakedowns.
+     */
+    public double getScanBudgetMillis() {
+        return scanBudgetMillis;
+    }
+
+    /**
+     * Maximum number of blocks the incremental scan mode visits per tick
+     * across all running shakedowns. 0 means only the time budget applies.
+     */
+    public int getScanBudgetBlocks() {
+        return scanBudgetBlocks;
+    }
+
+    /**
+     * Maximum number of regions a sweep scans at the same time, across all
+     * running sweeps.
+     */
+    public int getSweepMaxConcurrent() {
+        return sweepMaxConcurrent;
+    }
+
+    /**
+     * Main thread time, in milliseconds, all sweep scans together may spend
+     * per tick.
+     */
+    public double getSweepBudgetMillis() {
+        return sweepBudgetMillis;
+    }
+
+    /**
+     * Blocks all sweep scans together may visit per tick. 0 means only the
+     * time budget applies.
+     */
+    public int getSweepBudgetBlocks() {
+        return sweepBudgetBlocks;
+    }
+
+    public boolean isAutoEnabled() {
+        return autoEnabled;
+    }
+
+    /**
+     * Delay between rounds of automatic shakedowns.
+     */
+    public Duration getAutoInterval() {
+        return autoInterval;
+    }
+
+    /**
+     * How many prisoners off cooldown are searched per automatic round.
+     */
+    public int getAutoPerRun() {
+        return autoPerRun;
+    }
+
+    /**
+     * Name the {guard} placeholder and the history show for automatic
+     * shakedowns.
+     */
+    public String getAutoGuardName() {
+        return autoGuardName;
+    }
+
+    /**
+     * UUID recorded as the guard of automatic shakedowns.
+     */
+    public UUID getAutoGuardUuid() {
+        return autoGuardUuid;
+    }
+
+    /**
+     * How long a {@code /shakedown preview} result can be confirmed without
+     * scanning again.
+     */
+    public Duration getPreviewTtl() {
+        return previewTtl;
+    }
+
+    /**
+     * Main thread time per tick spent on queued reward and punishment actions.
+     */
+    public double getActionBudgetMillis() {
+        return actionBudgetMillis;
+    }
+
+    /**
+     * Most queued actions run in a single tick.
+     */
+    public int getActionMaxPerTick() {
+        return actionMaxPerTick;
+    }
+
+    /**
+     * Tries per action before it is reported as failed.
+     */
+    public int getActionAttempts() {
+        return actionAttempts;
+    }
+
+    public Duration getActionRetryDelay() {
+        return actionRetryDelay;
+    }
+
+    /**
+     * How many levels of shulker boxes and bundles are opened when looking
+     * for hidden contraband. 0 disables nested scanning.
+     */
+    public int getNestedMaxDepth() {
+        return nestedMaxDepth;
+    }
+
+    /**
+     * Maximum number of nested items inspected during a single shakedown.
+     */
+    public int getNestedItemBudget() {
+        return nestedItemBudget;
+    }
+
+    public boolean isIndexEnabled() {
+        return indexEnabled;
+    }
+
+    /**
+     * How long a region's contraband index is trusted after the full scan
+     * that warmed it.
+     */
+    public Duration getIndexMaxAge() {
+        return indexMaxAge;
+    }
+
+    /**
+     * Maximum positions tracked per region before its index is dropped in
+     * favour of a full scan.
+     */
+    public int getIndexMaxPositions() {
+        return indexMaxPositions;
+    }
+
+    public boolean isArmIndexEnabled() {
+        return armIndexEnabled;
+    }
+
+    /**
+     * Delay between full rebuilds of the ARM region index, which catch
+     * changes ARM fires no event for. Zero disables periodic rebuilds.
+     */
+    public Duration getArmIndexRebuildInterval() {
+        return armIndexRebuildInterval;
+    }
+
+    public StorageBackend getStorageBackend() {
+        return storageBackend;
+    }
+
+    /**
+     * Whether every flushed batch of cooldown writes is forced to disk
+     * ({@code storage.durability: fsync}) instead of left to the OS.
+     */
+    public boolean isStorageFsync() {
+        return storageFsync;
+    }
+
+    /**
+     * Delay between background flushes of the cooldown log.
+     */
+    public Duration getStorageFlushInterval() {
+        return storageFlushInterval;
+    }
+
+    /**
+     * Number of cooldown log records after which the log is compacted into
+     * the snapshot.
+     */
+    public int getStorageCompactThreshold() {
+        return storageCompactThreshold;
+    }
+
+    /**
+     * Maximum cooldown timestamps held in memory by the database backends.
+     */
+    public int getStorageCacheSize() {
+        return storageCacheSize;
+    }
+
+    /**
+     * Size after which the log backend starts a new history segment file.
+     */
+    public long getHistorySegmentBytes() {
+        return historySegmentBytes;
+    }
+
+    /**
+     * Prometheus text file the metrics are written to; relative to the
+     * plugin folder unless absolute.
+     */
+    public String getMetricsFile() {
+        return metricsFile;
+    }
+
+    /**
+     * Delay between metrics file writes. Zero disables the export.
+     */
+    public Duration getMetricsExportInterval() {
+        return metricsExportInterval;
+    }
+
     public boolean isDebugEnabled() {
         return debugEnabled;
     }
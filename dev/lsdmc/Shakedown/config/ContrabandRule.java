@@ -0,0 +1,59 @@
+package dev.lsdmc.Shakedown.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * A single entry of {@code contraband.rules} in {@code config.yml}. Item
+ * rules match when every condition they set holds; block rules match placed
+ * blocks against a block data string such as {@code WHEAT[age=7]}. Unset
+ * conditions are null (or empty for enchantments).
+ *
+ * @param material     item material the rule is restricted to, or null for any
+ * @param block        block data predicate, or null for an item rule
+ * @param pdcKey       persistent data key the item must carry, e.g. {@code myplugin:drug}
+ * @param name         regex the plain-text display name must match
+ * @param lore         regex at least one plain-text lore line must match
+ * @param enchantments enchantment keys of which the item must carry at least one
+ */
+public record ContrabandRule(String material, String block, String pdcKey, String name, String lore,
+                             List<String> enchantments) {
+    private static final Set<String> KEYS = Set.of("material", "block", "pdc-key", "name", "lore", "enchantments");
+
+    /**
+     * @return true if the rule targets placed blocks rather than items
+     */
+    public boolean isBlockRule() {
+        return block != null;
+    }
+
+    /**
+     * Reads a rule from one map of the {@code contraband.rules} list. Keys
+     * the rule does not know are reported, since a misspelled condition
+     * would otherwise silently widen the rule.
+     */
+    static ContrabandRule fromMap(Map<?, ?> map, Logger logger) {
+        for (Object key : map.keySet()) {
+            if (!KEYS.contains(String.valueOf(key))) {
+                logger.warning("Unknown key '" + key + "' in contraband rule " + map + "; expected one of " + KEYS);
+            }
+        }
+        List<String> enchantments = new ArrayList<>();
+        if (map.get("enchantments") instanceof List<?> list) {
+            for (Object o : list) {
+                if (o != null) enchantments.add(o.toString());
+            }
+        }
+        return new ContrabandRule(string(map, "material"), string(map, "block"), string(map, "pdc-key"),
+                string(map, "name"), string(map, "lore"), Collections.unmodifiableList(enchantments));
+    }
+
+    private static String string(Map<?, ?> map, String key) {
+        Object value = map.get(key);
+        return value == null ? null : value.toString();
+    }
+}
@@ -0,0 +1,110 @@
+package dev.lsdmc.Shakedown.config;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A configured MiniMessage message, parsed once at load. Placeholders are
+ * resolved through a {@link TagResolver} into marker text while parsing,
+ * and rendering only swaps the markers for the values in a copy of the
+ * component tree, so the MiniMessage string is never parsed again.
+ * Messages without placeholders render to the same component every time.
+ */
+public final class MessageTemplate {
+    private static final MiniMessage MINI = MiniMessage.miniMessage();
+    // Private use character followed by the placeholder ordinal marks a placeholder in parsed text
+    private static final char MARKER = '\uE000';
+    private static final TagResolver MARKERS;
+
+    static {
+        TagResolver.Builder builder = TagResolver.builder();
+        for (TemplateKey key : TemplateKey.values()) {
+            builder.resolver(Placeholder.component(key.key(), Component.text(marker(key))));
+        }
+        MARKERS = builder.build();
+    }
+
+    private final String raw;
+    private final Component component;
+    private final boolean hasPlaceholders;
+
+    private MessageTemplate(String raw, Component component, boolean hasPlaceholders) {
+        this.raw = raw;
+        this.component = component;
+        this.hasPlaceholders = hasPlaceholders;
+    }
+
+    /**
+     * Parses a message. Placeholders are written as {@code {name}} like in
+     * commands; {@code <name>} works too.
+     */
+    public static MessageTemplate compile(String raw) {
+        String tagged = raw;
+        boolean hasPlaceholders = false;
+        for (TemplateKey key : TemplateKey.values()) {
+            tagged = tagged.replace("{" + key.key() + "}", "<" + key.key() + ">");
+            hasPlaceholders |= tagged.contains("<" + key.key() + ">");
+        }
+        return new MessageTemplate(raw, MINI.deserialize(tagged, MARKERS), hasPlaceholders);
+    }
+
+    /**
+     * @return whether the message is empty, in which case it should not be sent
+     */
+    public boolean isEmpty() {
+        return raw.isEmpty();
+    }
+
+    public Component render(TemplateValues values) {
+        return hasPlaceholders ? fill(component, values) : component;
+    }
+
+    @Override
+    public String toString() {
+        return raw;
+    }
+
+    private static Component fill(Component component, TemplateValues values) {
+        Component out = component;
+        // Parsing may have merged a marker into the surrounding text, so look inside the content
+        if (component instanceof TextComponent text && text.content().indexOf(MARKER) >= 0) {
+            out = text.content(fill(text.content(), values));
+        }
+        List<Component> children = component.children();
+        List<Component> filled = null;
+        for (int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            Component replaced = fill(child, values);
+            if (replaced != child && filled == null) {
+                filled = new ArrayList<>(children);
+            }
+            if (filled != null) filled.set(i, replaced);
+        }
+        return filled != null ? out.children(filled) : out;
+    }
+
+    private static String fill(String content, TemplateValues values) {
+        StringBuilder out = new StringBuilder(content.length() + 16);
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            int ordinal = i + 1 < content.length() ? content.charAt(i + 1) - 'a' : -1;
+            if (c == MARKER && ordinal >= 0 && ordinal < TemplateKey.count()) {
+                out.append(values.get(TemplateKey.byOrdinal(ordinal)));
+                i++;
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static String marker(TemplateKey key) {
+        return String.valueOf(MARKER) + (char) ('a' + key.ordinal());
+    }
+}
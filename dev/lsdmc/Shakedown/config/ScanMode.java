@@ -0,0 +1,29 @@
+package dev.lsdmc.Shakedown.config;
+
+import java.util.Locale;
+
+/**
+ * Strategies available for scanning a region during a shakedown. Selected
+ * through {@code shakedown.scan.mode} in {@code config.yml}.
+ */
+public enum ScanMode {
+    /** Scan the whole region in a single main thread task. */
+    SYNC,
+    /** Capture chunk snapshots on the main thread and match blocks on worker threads. */
+    SNAPSHOT,
+    /** Scan a bounded slice of the region each tick until done. */
+    INCREMENTAL;
+
+    /**
+     * Parses a mode name case-insensitively, returning the fallback when the
+     * name is missing or unknown.
+     */
+    public static ScanMode parse(String name, ScanMode fallback) {
+        if (name == null) return fallback;
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return fallback;
+        }
+    }
+}
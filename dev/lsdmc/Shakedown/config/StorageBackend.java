@@ -0,0 +1,29 @@
+package dev.lsdmc.Shakedown.config;
+
+import java.util.Locale;
+
+/**
+ * Persistence backends for cooldown data. Selected through
+ * {@code storage.backend} in {@code config.yml}.
+ */
+public enum StorageBackend {
+    /** Append-only log plus snapshot in the plugin folder; everything held in memory. */
+    LOG,
+    /** Embedded SQLite database; only a bounded cache is held in memory. */
+    SQLITE,
+    /** Embedded H2 database; requires the H2 driver on the classpath. */
+    H2;
+
+    /**
+     * Parses a backend name case-insensitively, returning the fallback when
+     * the name is missing or unknown.
+     */
+    public static StorageBackend parse(String name, StorageBackend fallback) {
+        if (name == null) return fallback;
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package dev.lsdmc.Shakedown.config;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Placeholders available in configured messages and commands, written as
+ * {@code {name}}.
+ */
+public enum TemplateKey {
+    /** The prisoner, i.e. the region's primary user. */
+    PLAYER("player"),
+    /** The staff member running the shakedown, or the automatic guard name. */
+    GUARD("guard"),
+    REGION("region"),
+    /** Total number of confiscated blocks and items. */
+    COUNT("count"),
+    /** What was confiscated, e.g. {@code 3x sugar_cane, 1x bamboo}. */
+    ITEMS("items"),
+    /** How long the shakedown took, e.g. {@code 4s}. */
+    DURATION("duration");
+
+    private static final TemplateKey[] VALUES = values();
+
+    private final String key;
+
+    TemplateKey(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    /**
+     * @return the placeholder with the given name, or null if there is none
+     */
+    @Nullable
+    public static TemplateKey byKey(String key) {
+        for (TemplateKey value : VALUES) {
+            if (value.key.equals(key)) return value;
+        }
+        return null;
+    }
+
+    static int count() {
+        return VALUES.length;
+    }
+
+    static TemplateKey byOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,20 @@
+package dev.lsdmc.Shakedown.config;
+
+/**
+ * Values of the {@link TemplateKey placeholders} for one shakedown. Built
+ * once and shared by every message and command formatted for it; unset
+ * placeholders expand to an empty string.
+ */
+public final class TemplateValues {
+    private final String[] values = new String[TemplateKey.count()];
+
+    public TemplateValues with(TemplateKey key, String value) {
+        values[key.ordinal()] = value;
+        return this;
+    }
+
+    public String get(TemplateKey key) {
+        String value = values[key.ordinal()];
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,245 @@
+package dev.lsdmc.Shakedown.data;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Last shakedown timestamps keyed by player UUID, stored in one flat
+ * {@code long[]}: open addressing with linear probing over the two halves
+ * of the UUID, so an entry costs three longs instead of a boxed key, value
+ * and map node. Timestamps older than the cooldown are treated as absent and are
+ * swept lazily, before the table would grow. Writers serialize on a lock;
+ * readers use optimistic reads and never block while no write is running,
+ * so any thread may check a cooldown.
+ */
+final class CooldownMap {
+    private static final int MIN_CAPACITY = 64;
+    // Slot i is table[3i] (most significant bits), table[3i + 1] and the timestamp at table[3i + 2]
+    private static final int STRIDE = 3;
+
+    private final StampedLock lock = new StampedLock();
+    // A timestamp of 0 marks a free slot
+    private long[] table;
+    private int size;
+    private volatile long ttlSeconds;
+
+    /**
+     * @param ttlSeconds how long a timestamp keeps a cooldown active
+     */
+    CooldownMap(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+        this.table = new long[MIN_CAPACITY * STRIDE];
+    }
+
+    /**
+     * Changes how long a timestamp matters. Entries already expired under
+     * the old value may have been swept.
+     */
+    void setTtl(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    /**
+     * @return the last shakedown (epoch seconds), or -1 if there is none
+     * that is still within the cooldown
+     */
+    long get(UUID id) {
+        long value = read(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        return value > 0 && !expired(value, now()) ? value : -1;
+    }
+
+    /**
+     * @return the epoch second the cooldown ends, or 0 if none is active
+     */
+    long nextEligible(UUID id) {
+        long value = get(id);
+        return value > 0 ? value + ttlSeconds : 0;
+    }
+
+    /**
+     * Stores a timestamp unless a later one is already present. Timestamps
+     * that are already expired are not stored.
+     */
+    void put(UUID id, long epochSeconds) {
+        long now = now();
+        if (epochSeconds <= 0 || expired(epochSeconds, now)) return;
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        long stamp = lock.writeLock();
+        try {
+            int at = find(table, msb, lsb);
+            if (table[at + 2] != 0) {
+                if (epochSeconds > table[at + 2]) table[at + 2] = epochSeconds;
+                return;
+            }
+            int capacity = table.length / STRIDE;
+            if ((size + 1) * 4 > capacity * 3) {
+                // Make room by dropping expired entries first; only grow if that was not enough
+                sweep(now);
+                if ((size + 1) * 2 > capacity) resize(capacity * 2);
+                at = find(table, msb, lsb);
+            }
+            table[at] = msb;
+            table[at + 1] = lsb;
+            table[at + 2] = epochSeconds;
+            size++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Drops every expired entry and shrinks the table if it became sparse.
+     *
+     * @return the number of dropped entries
+     */
+    int sweepExpired() {
+        long stamp = lock.writeLock();
+        try {
+            int dropped = sweep(now());
+            int current = table.length / STRIDE;
+            int capacity = current;
+            while (capacity > MIN_CAPACITY && size * 8 < capacity) capacity /= 2;
+            if (capacity != current) resize(capacity);
+            return dropped;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.tryOptimisticRead();
+        int result = size;
+        if (lock.validate(stamp)) return result;
+        stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Receives the live entries of {@link #forEach}.
+     */
+    @FunctionalInterface
+    interface Visitor {
+        void accept(UUID id, long epochSeconds);
+    }
+
+    /**
+     * Visits every entry that has not expired. The visit runs on a copy of
+     * the table, so writers only wait for the copy, not for the visitor.
+     */
+    void forEach(Visitor visitor) {
+        long now = now();
+        long[] copy;
+        long stamp = lock.readLock();
+        try {
+            copy = table.clone();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        for (int at = 0; at < copy.length; at += STRIDE) {
+            long value = copy[at + 2];
+            if (value != 0 && !expired(value, now)) {
+                visitor.accept(new UUID(copy[at], copy[at + 1]), value);
+            }
+        }
+    }
+
+    private long read(long msb, long lsb) {
+        long stamp = lock.tryOptimisticRead();
+        long[] t = table;
+        long value = t[find(t, msb, lsb) + 2];
+        if (lock.validate(stamp)) return value;
+        stamp = lock.readLock();
+        try {
+            return table[find(table, msb, lsb) + 2];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return the array offset of the slot holding the key, or of the free
+     * slot where it would go. The table always has a free slot, so the probe
+     * ends.
+     */
+    private static int find(long[] table, long msb, long lsb) {
+        int capacity = table.length / STRIDE;
+        int mask = capacity - 1;
+        int slot = hash(msb, lsb) & mask;
+        // An optimistic reader may see a table mid-write; the bound keeps it from spinning
+        for (int probes = 0; probes < capacity; probes++) {
+            int at = slot * STRIDE;
+            if (table[at + 2] == 0 || (table[at] == msb && table[at + 1] == lsb)) return at;
+            slot = (slot + 1) & mask;
+        }
+        return slot * STRIDE;
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        h ^= h >>> 32;
+        return (int) (h ^ h >>> 16);
+    }
+
+    private int sweep(long now) {
+        int dropped = 0;
+        int slot = 0;
+        int capacity = table.length / STRIDE;
+        while (slot < capacity) {
+            long value = table[slot * STRIDE + 2];
+            if (value != 0 && expired(value, now)) {
+                // Backward-shift deletion refills the slot, so look at it again
+                delete(slot);
+                dropped++;
+            } else {
+                slot++;
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Removes a slot and shifts later entries of its probe chain back, so no
+     * tombstones are needed.
+     */
+    private void delete(int slot) {
+        int mask = table.length / STRIDE - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (table[next * STRIDE + 2] != 0) {
+            int at = next * STRIDE;
+            int home = hash(table[at], table[at + 1]) & mask;
+            // Move the entry into the hole unless its home lies cyclically in (hole, next]
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                System.arraycopy(table, at, table, hole * STRIDE, STRIDE);
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[hole * STRIDE + 2] = 0;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        long[] old = table;
+        long[] resized = new long[capacity * STRIDE];
+        for (int at = 0; at < old.length; at += STRIDE) {
+            if (old[at + 2] == 0) continue;
+            System.arraycopy(old, at, resized, find(resized, old[at], old[at + 1]), STRIDE);
+        }
+        table = resized;
+    }
+
+    private boolean expired(long epochSeconds, long now) {
+        return epochSeconds + ttlSeconds <= now;
+    }
+
+    private static long now() {
+        return Instant.now().getEpochSecond();
+    }
+}
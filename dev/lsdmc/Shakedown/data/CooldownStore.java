@@ -0,0 +1,54 @@
+package dev.lsdmc.Shakedown.data;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Persistence backend for last shakedown timestamps, keyed by identifiers
+ * (player UUIDs or region IDs). Writes are fire-and-forget; backends batch
+ * them off the main thread. Reads may complete later when the value is not
+ * held in memory.
+ */
+public interface CooldownStore {
+
+    /**
+     * @return a future of the timestamp (epoch seconds) of the last shakedown,
+     * or -1 if there is none. Completes on an arbitrary thread.
+     */
+    CompletableFuture<Long> getLastShakedown(String identifier);
+
+    /**
+     * @return a future of the epoch second the cooldown ends, or 0 if none is
+     * active. Completes on an arbitrary thread.
+     */
+    CompletableFuture<Long> getNextEligible(String identifier);
+
+    /**
+     * Sets how long a timestamp keeps a cooldown active. Stores may forget
+     * timestamps older than that.
+     */
+    void setCooldown(long seconds);
+
+    /**
+     * Records a timestamp. Returns immediately.
+     */
+    void recordShakedown(String identifier, long epochSeconds);
+
+    /**
+     * @return whether the store holds no data yet. Blocking; startup only.
+     */
+    boolean isEmpty() throws IOException;
+
+    /**
+     * Bulk-loads existing data, e.g. from the old {@code data.yml}. Blocking;
+     * startup only.
+     */
+    void importAll(Map<String, Long> data) throws IOException;
+
+    /**
+     * Writes everything still pending and releases the backend. Blocks the
+     * calling thread.
+     */
+    void close();
+}
@@ -1,86 +1,171 @@
 package dev.lsdmc.Shakedown.data;
 
+import dev.lsdmc.Shakedown.config.ConfigManager;
 import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.Plugin;
 
 import java.io.File;
 import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Responsible for persisting and retrieving runtime data such as last
- * shakedown timestamps. Data is stored in a YAML file (`data.yml`)
- * inside the plugin’s data folder. The format is simple: a map of
- * identifiers (player UUIDs or region IDs) to epoch second timestamps.
+ * shakedown timestamps, keyed by identifiers (player UUIDs or region IDs).
+ * The backend is chosen through {@code storage.backend}: an append-only log
+ * compacted into a snapshot (see {@link LogCooldownStore}) or an embedded
+ * database behind a bounded cache (see {@link SqlCooldownStore}). Either way
+ * recording a shakedown never touches the disk on the main thread. An
+ * existing {@code data.yml} from older versions is imported once. Finished
+ * shakedowns are kept in a {@link HistoryStore} on the same backend.
  */
 public final class DataManager {
     private final Plugin plugin;
-    private final File dataFile;
-    private FileConfiguration dataConfig;
-    // In memory cache for quick lookups
-    private final Map<String, Long> lastShakedowns;
+    private final CooldownStore store;
+    private final HistoryStore history;
+    // Null for the log backend
+    private final SqlDatabase database;
 
-    public DataManager(Plugin plugin) {
+    public DataManager(Plugin plugin, ConfigManager config) {
         this.plugin = plugin;
-        this.dataFile = new File(plugin.getDataFolder(), "data.yml");
-        this.lastShakedowns = new HashMap<>();
-        loadData();
+        long flushMillis = config.getStorageFlushInterval().toMillis();
+        try {
+            switch (config.getStorageBackend()) {
+                case SQLITE, H2 -> {
+                    SqlDatabase.Dialect dialect = SqlDatabase.Dialect.valueOf(config.getStorageBackend().name());
+                    this.database = new SqlDatabase(plugin.getDataFolder(), dialect, config.isStorageFsync(),
+                            plugin.getLogger());
+                    this.store = new SqlCooldownStore(database, plugin.getLogger(), config.getStorageCacheSize(),
+                            flushMillis);
+                    this.history = new SqlHistoryStore(database, plugin.getLogger(), flushMillis);
+                }
+                default -> {
+                    this.database = null;
+                    this.store = new LogCooldownStore(plugin.getDataFolder(), plugin.getLogger(),
+                            config.isStorageFsync(), flushMillis, config.getStorageCompactThreshold(),
+                            config.getCooldown().toSeconds());
+                    this.history = new SegmentedHistoryStore(new File(plugin.getDataFolder(), "history"),
+                            plugin.getLogger(), config.getHistorySegmentBytes());
+                }
+            }
+        } catch (IOException | SQLException e) {
+            throw new IllegalStateException("Could not open cooldown storage: " + e.getMessage(), e);
+        }
+        store.setCooldown(config.getCooldown().toSeconds());
+        migrateLegacyData();
     }
 
     /**
-     * Returns the timestamp (epoch seconds) of the last shakedown for a given
-     * identifier. The identifier can either be a player UUID string or
-     * region ID. If no entry exists, -1 is returned.
+     * Looks up the timestamp (epoch seconds) of the last shakedown for a
+     * given identifier. The identifier can either be a player UUID string or
+     * region ID. If no entry exists, -1 is returned. The future is already
+     * complete when the value is in memory; otherwise it completes on the
+     * main thread once the backend has answered.
      */
-    public long getLastShakedown(String identifier) {
-        return lastShakedowns.getOrDefault(identifier, -1L);
+    public CompletableFuture<Long> getLastShakedown(String identifier) {
+        CompletableFuture<Long> lookup = store.getLastShakedown(identifier);
+        if (lookup.isDone()) {
+            return lookup;
+        }
+        return lookup.whenCompleteAsync((value, ex) -> { }, this::runOnMainThread);
+    }
+
+    /**
+     * Looks up when the cooldown of a given identifier ends, as an epoch
+     * second, or 0 if none is active. Completes like
+     * {@link #getLastShakedown(String)}.
+     */
+    public CompletableFuture<Long> getNextEligible(String identifier) {
+        CompletableFuture<Long> lookup = store.getNextEligible(identifier);
+        if (lookup.isDone()) {
+            return lookup;
+        }
+        return lookup.whenCompleteAsync((value, ex) -> { }, this::runOnMainThread);
+    }
+
+    /**
+     * Applies a changed cooldown length after a reload. The in-memory store
+     * forgets timestamps older than the cooldown.
+     */
+    public void setCooldown(Duration cooldown) {
+        store.setCooldown(cooldown.toSeconds());
     }
 
     /**
      * Updates the last shakedown time for the given identifier to the
-     * current instant.
+     * current instant. The write is flushed to disk asynchronously.
      */
     public void recordShakedown(String identifier) {
-        long now = Instant.now().getEpochSecond();
-        lastShakedowns.put(identifier, now);
-        dataConfig.set("lastShakedowns." + identifier, now);
-        saveData();
+        store.recordShakedown(identifier, Instant.now().getEpochSecond());
     }
 
-    private void loadData() {
-        if (!dataFile.exists()) {
-            try {
-                // Create parent directories and file if it doesn’t exist
-                dataFile.getParentFile().mkdirs();
-                if (!dataFile.createNewFile()) {
-                    plugin.getLogger().warning("Could not create data.yml file");
-                }
-            } catch (IOException e) {
-                plugin.getLogger().severe("Failed to create data.yml: " + e.getMessage());
+    /**
+     * Appends a finished shakedown to the history. Written asynchronously.
+     */
+    public void recordHistory(ShakedownRecord record) {
+        history.append(record);
+    }
+
+    /**
+     * Loads one page of history, newest first. The future completes on the
+     * main thread.
+     *
+     * @param page 1-based page number
+     */
+    public CompletableFuture<HistoryStore.Page> getHistory(HistoryQuery query, int page, int pageSize) {
+        return history.query(query, page, pageSize).whenCompleteAsync((value, ex) -> { }, this::runOnMainThread);
+    }
+
+    /**
+     * Flushes pending writes and releases the backend. Called when the
+     * plugin is disabled.
+     */
+    public void close() {
+        store.close();
+        history.close();
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    private void runOnMainThread(Runnable task) {
+        Bukkit.getScheduler().runTask(plugin, task);
+    }
+
+    private void migrateLegacyData() {
+        File dataFile = new File(plugin.getDataFolder(), "data.yml");
+        try {
+            if (!dataFile.exists() || !store.isEmpty()) {
+                return;
             }
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to check cooldown storage: " + e.getMessage());
+            return;
         }
-        dataConfig = YamlConfiguration.loadConfiguration(dataFile);
-        // Populate the in memory map
-        if (dataConfig.contains("lastShakedowns")) {
-            for (String key : dataConfig.getConfigurationSection("lastShakedowns").getKeys(false)) {
-                long timestamp = dataConfig.getLong("lastShakedowns." + key);
-                lastShakedowns.put(key, timestamp);
+        FileConfiguration dataConfig = YamlConfiguration.loadConfiguration(dataFile);
+        ConfigurationSection section = dataConfig.getConfigurationSection("lastShakedowns");
+        Map<String, Long> legacy = new HashMap<>();
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                legacy.put(key, section.getLong(key));
             }
         }
-    }
-
-    public void saveData() {
         try {
-            dataConfig.save(dataFile);
+            store.importAll(legacy);
+            File backup = new File(plugin.getDataFolder(), "data.yml.migrated");
+            if (!dataFile.renameTo(backup)) {
+                plugin.getLogger().warning("Could not rename data.yml after migrating it");
+            }
+            plugin.getLogger().info("Migrated " + legacy.size() + " cooldowns from data.yml");
         } catch (IOException e) {
-            plugin.getLogger().severe("Could not save data.yml: " + e.getMessage());
+            plugin.getLogger().severe("Failed to migrate data.yml: " + e.getMessage());
         }
     }
 }
-
-
@@ -0,0 +1,27 @@
+package dev.lsdmc.Shakedown.data;
+
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Selects shakedown history records, either those involving a player (as
+ * prisoner or as guard) or those of a region.
+ */
+public record HistoryQuery(UUID player, String region) {
+
+    public static HistoryQuery player(UUID player) {
+        return new HistoryQuery(player, null);
+    }
+
+    public static HistoryQuery region(String region) {
+        // WorldGuard region IDs are lower case
+        return new HistoryQuery(null, region.toLowerCase(Locale.ROOT));
+    }
+
+    public boolean matches(ShakedownRecord record) {
+        if (player != null) {
+            return player.equals(record.prisoner()) || player.equals(record.guard());
+        }
+        return record.region().equalsIgnoreCase(region);
+    }
+}
@@ -0,0 +1,40 @@
+package dev.lsdmc.Shakedown.data;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Append-only store of finished shakedowns. Appends return immediately;
+ * queries run off the main thread and return one page, newest first.
+ */
+public interface HistoryStore {
+
+    /**
+     * One page of query results.
+     *
+     * @param hasMore whether at least one older matching record exists
+     */
+    record Page(List<ShakedownRecord> records, int page, boolean hasMore) {
+    }
+
+    void append(ShakedownRecord record);
+
+    /**
+     * @param page     1-based page number
+     * @param pageSize records per page
+     * @return a future completed on an arbitrary thread
+     */
+    CompletableFuture<Page> query(HistoryQuery query, int page, int pageSize);
+
+    /**
+     * @return the page, at least 1 and small enough that its offset still fits an int
+     */
+    static int clampPage(int page, int pageSize) {
+        return Math.max(1, Math.min(page, Integer.MAX_VALUE / Math.max(1, pageSize)));
+    }
+
+    /**
+     * Writes everything still pending. Blocks the calling thread.
+     */
+    void close();
+}
@@ -0,0 +1,286 @@
+package dev.lsdmc.Shakedown.data;
+
+import dev.lsdmc.Shakedown.metrics.Metrics;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind store for shakedown timestamps. Updates go to an in-memory
+ * map right away and are appended to a line log ({@code id<TAB>epochSeconds})
+ * in batches by a background thread. Once the log grows past the compaction
+ * threshold the map is written to a snapshot file and the log starts over.
+ * On startup the snapshot is loaded and the log replayed on top of it; a
+ * torn last line from a crash is skipped. Every value still within the
+ * cooldown is kept in memory, so reads complete immediately; player
+ * timestamps live in a primitive {@link CooldownMap}, other identifiers in
+ * a small map. Expired timestamps are forgotten lazily and left out of the
+ * next snapshot.
+ */
+final class LogCooldownStore implements CooldownStore {
+    private final Logger logger;
+    private final File snapshotFile;
+    private final File logFile;
+    private final boolean fsync;
+    private final int compactThreshold;
+    private final CooldownMap players;
+    // Identifiers that are not player UUIDs, such as region IDs
+    private final Map<String, Long> others = new ConcurrentHashMap<>();
+    private volatile long cooldownSeconds;
+    private final Queue<String> pending = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService flusher;
+    // Only touched by the flusher thread (or by close() once it has stopped)
+    private FileOutputStream logStream;
+    private Writer logWriter;
+    private int logRecords;
+
+    /**
+     * @param folder           directory holding {@code cooldowns.snapshot} and {@code cooldowns.log}
+     * @param fsync            whether every flushed batch is forced to disk
+     * @param flushMillis      delay between background flushes
+     * @param compactThreshold log records after which the log is compacted into the snapshot
+     * @param cooldownSeconds  how long a timestamp is kept
+     */
+    LogCooldownStore(File folder, Logger logger, boolean fsync, long flushMillis, int compactThreshold,
+                     long cooldownSeconds) throws IOException {
+        this.logger = logger;
+        this.cooldownSeconds = cooldownSeconds;
+        this.players = new CooldownMap(cooldownSeconds);
+        this.snapshotFile = new File(folder, "cooldowns.snapshot");
+        this.logFile = new File(folder, "cooldowns.log");
+        this.fsync = fsync;
+        this.compactThreshold = compactThreshold;
+        folder.mkdirs();
+        read(snapshotFile);
+        logRecords = read(logFile);
+        openLog(true);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Shakedown-Storage");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return players.size() == 0 && others.isEmpty() && logRecords == 0 && !snapshotFile.exists();
+    }
+
+    @Override
+    public CompletableFuture<Long> getLastShakedown(String identifier) {
+        return CompletableFuture.completedFuture(lastShakedown(identifier));
+    }
+
+    @Override
+    public CompletableFuture<Long> getNextEligible(String identifier) {
+        UUID player = parsePlayer(identifier);
+        if (player != null) return CompletableFuture.completedFuture(players.nextEligible(player));
+        long last = lastShakedown(identifier);
+        return CompletableFuture.completedFuture(last > 0 ? last + cooldownSeconds : 0L);
+    }
+
+    /**
+     * Changes how long timestamps are kept. Ones already forgotten under a
+     * shorter cooldown stay forgotten.
+     */
+    @Override
+    public void setCooldown(long seconds) {
+        cooldownSeconds = seconds;
+        players.setTtl(seconds);
+    }
+
+    /**
+     * Records a timestamp. The write reaches disk with the next flush.
+     */
+    @Override
+    public void recordShakedown(String identifier, long epochSeconds) {
+        put(identifier, epochSeconds);
+        pending.add(identifier + '\t' + epochSeconds);
+    }
+
+    /**
+     * Seeds the store and writes the data straight into a snapshot.
+     */
+    @Override
+    public void importAll(Map<String, Long> data) throws IOException {
+        data.forEach(this::put);
+        writeSnapshot();
+    }
+
+    /**
+     * Stops the background flusher, writes everything still pending and
+     * compacts the log.
+     */
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warning("Cooldown storage flusher did not stop in time");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flush();
+            if (logRecords > 0) compact();
+            logWriter.close();
+        } catch (IOException ex) {
+            logger.log(Level.SEVERE, "Could not flush cooldown storage", ex);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+            if (logRecords >= compactThreshold) compact();
+        } catch (IOException ex) {
+            logger.log(Level.SEVERE, "Could not write cooldown log", ex);
+        }
+    }
+
+    private void flush() throws IOException {
+        if (pending.isEmpty()) return;
+        long start = System.nanoTime();
+        String line;
+        while ((line = pending.poll()) != null) {
+            logWriter.write(line);
+            logWriter.write('\n');
+            logRecords++;
+        }
+        logWriter.flush();
+        if (fsync) logStream.getFD().sync();
+        Metrics.record(Metrics.Phase.PERSIST, start);
+    }
+
+    private void compact() throws IOException {
+        // Anything updated after this point is still queued and lands in the fresh log
+        writeSnapshot();
+        logWriter.close();
+        openLog(false);
+        logRecords = 0;
+    }
+
+    private void writeSnapshot() throws IOException {
+        File temp = new File(snapshotFile.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            players.sweepExpired();
+            IOException[] failure = new IOException[1];
+            players.forEach((id, epochSeconds) -> {
+                if (failure[0] != null) return;
+                try {
+                    writeRecord(writer, id.toString(), epochSeconds);
+                } catch (IOException ex) {
+                    failure[0] = ex;
+                }
+            });
+            if (failure[0] != null) throw failure[0];
+            long now = Instant.now().getEpochSecond();
+            others.values().removeIf(epochSeconds -> expired(epochSeconds, now));
+            for (Map.Entry<String, Long> entry : others.entrySet()) {
+                writeRecord(writer, entry.getKey(), entry.getValue());
+            }
+            writer.flush();
+            out.getFD().sync();
+        }
+        Files.move(temp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeRecord(Writer writer, String identifier, long epochSeconds) throws IOException {
+        writer.write(identifier);
+        writer.write('\t');
+        writer.write(Long.toString(epochSeconds));
+        writer.write('\n');
+    }
+
+    private long lastShakedown(String identifier) {
+        UUID player = parsePlayer(identifier);
+        if (player != null) return players.get(player);
+        Long value = others.get(identifier);
+        return value != null && !expired(value, Instant.now().getEpochSecond()) ? value : -1L;
+    }
+
+    /**
+     * Stores a timestamp unless a later one is already held. Expired ones
+     * are dropped right away.
+     */
+    private void put(String identifier, long epochSeconds) {
+        UUID player = parsePlayer(identifier);
+        if (player != null) {
+            players.put(player, epochSeconds);
+        } else if (!expired(epochSeconds, Instant.now().getEpochSecond())) {
+            others.merge(identifier, epochSeconds, Math::max);
+        }
+    }
+
+    private boolean expired(long epochSeconds, long now) {
+        return epochSeconds + cooldownSeconds <= now;
+    }
+
+    /**
+     * @return the identifier as a player UUID, or null if it is something else
+     */
+    private static UUID parsePlayer(String identifier) {
+        // Cheap shape check first, region IDs should not pay for an exception
+        if (identifier.length() != 36 || identifier.charAt(8) != '-' || identifier.charAt(13) != '-') return null;
+        try {
+            return UUID.fromString(identifier);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private void openLog(boolean append) throws IOException {
+        logStream = new FileOutputStream(logFile, append);
+        logWriter = new BufferedWriter(new OutputStreamWriter(logStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a snapshot or log file into the map. Later and larger timestamps
+     * win, so replaying a log that was already compacted is harmless.
+     *
+     * @return the number of records read
+     */
+    private int read(File file) throws IOException {
+        if (!file.exists()) return 0;
+        int records = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab <= 0) continue;
+                try {
+                    long timestamp = Long.parseLong(line.substring(tab + 1));
+                    put(line.substring(0, tab), timestamp);
+                    records++;
+                } catch (NumberFormatException ignored) {
+                    // Torn write from a crash
+                }
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,211 @@
+package dev.lsdmc.Shakedown.data;
+
+import dev.lsdmc.Shakedown.metrics.Metrics;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * History kept as append-only segment files ({@code history/segment-<millis>.log},
+ * one {@link ShakedownRecord} line each). The file name carries the start
+ * time of its first record, which makes the set of segment names a time
+ * index: queries walk segments newest first and stop as soon as the page is
+ * full, so old segments are only read when paging that far back. The
+ * players and regions of each segment are remembered once a query has read
+ * it, so later queries skip segments without a match instead of reading
+ * them again. A segment is closed once it passes the configured size. All
+ * file access happens on one background thread.
+ */
+final class SegmentedHistoryStore implements HistoryStore {
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".log";
+
+    private final Logger logger;
+    private final File folder;
+    private final long segmentBytes;
+    private final ExecutorService executor;
+    // First record time -> segment; only touched on the executor thread
+    private final NavigableMap<Long, File> segments = new TreeMap<>();
+    // Segment -> keys of the players and regions in it, once known; only touched on the executor thread
+    private final Map<File, Set<String>> keys = new HashMap<>();
+    private Writer writer;
+    private File current;
+
+    SegmentedHistoryStore(File folder, Logger logger, long segmentBytes) {
+        this.logger = logger;
+        this.folder = folder;
+        this.segmentBytes = segmentBytes;
+        folder.mkdirs();
+        File[] files = folder.listFiles((dir, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                try {
+                    segments.put(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())), file);
+                } catch (NumberFormatException ex) {
+                    logger.warning("Ignoring unexpected history file " + name);
+                }
+            }
+        }
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "Shakedown-History");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void append(ShakedownRecord record) {
+        executor.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                if (writer == null || current.length() >= segmentBytes) {
+                    roll(record.startedAt());
+                }
+                writer.write(record.toLine());
+                writer.write('\n');
+                writer.flush();
+                Metrics.record(Metrics.Phase.PERSIST, start);
+                Set<String> known = keys.get(current);
+                if (known != null) addKeys(known, record);
+            } catch (IOException ex) {
+                logger.log(Level.SEVERE, "Could not append shakedown history", ex);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Page> query(HistoryQuery query, int page, int pageSize) {
+        return CompletableFuture.supplyAsync(() -> {
+            int first = HistoryStore.clampPage(page, pageSize);
+            int skip = (first - 1) * pageSize;
+            String key = key(query);
+            List<ShakedownRecord> records = new ArrayList<>(pageSize);
+            for (File segment : segments.descendingMap().values()) {
+                Set<String> known = keys.get(segment);
+                if (known != null && !known.contains(key)) continue;
+                List<ShakedownRecord> parsed = read(segment);
+                if (parsed == null) continue;
+                if (known == null) {
+                    known = new HashSet<>();
+                    for (ShakedownRecord record : parsed) {
+                        addKeys(known, record);
+                    }
+                    keys.put(segment, known);
+                    if (!known.contains(key)) continue;
+                }
+                for (int i = parsed.size() - 1; i >= 0; i--) {
+                    ShakedownRecord record = parsed.get(i);
+                    if (!query.matches(record)) continue;
+                    if (skip > 0) {
+                        skip--;
+                    } else if (records.size() < pageSize) {
+                        records.add(record);
+                    } else {
+                        return new Page(records, first, true);
+                    }
+                }
+            }
+            return new Page(records, first, false);
+        }, executor);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warning("History thread did not stop in time");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ex) {
+                logger.log(Level.SEVERE, "Could not close history segment", ex);
+            }
+        }
+    }
+
+    /**
+     * @return the well-formed records of the segment in file order, or null if it could not be read
+     */
+    @Nullable
+    private List<ShakedownRecord> read(File segment) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(segment.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Could not read history segment " + segment.getName(), ex);
+            return null;
+        }
+        List<ShakedownRecord> records = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            ShakedownRecord record = ShakedownRecord.parse(line);
+            if (record != null) records.add(record);
+        }
+        return records;
+    }
+
+    private static String key(HistoryQuery query) {
+        return query.player() != null ? playerKey(query.player()) : regionKey(query.region());
+    }
+
+    private static void addKeys(Set<String> keys, ShakedownRecord record) {
+        keys.add(playerKey(record.prisoner()));
+        keys.add(playerKey(record.guard()));
+        keys.add(regionKey(record.region()));
+    }
+
+    private static String playerKey(UUID player) {
+        return "p:" + player;
+    }
+
+    private static String regionKey(String region) {
+        // Queries match regions ignoring case
+        return "r:" + region.toLowerCase(Locale.ROOT);
+    }
+
+    private void roll(long startedAt) throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+        // Keep appending to the newest segment after a restart until it is full
+        Map.Entry<Long, File> last = segments.lastEntry();
+        if (current == null && last != null && last.getValue().length() < segmentBytes) {
+            current = last.getValue();
+        } else {
+            long key = Math.max(startedAt, last == null ? startedAt : last.getKey() + 1);
+            current = new File(folder, PREFIX + key + SUFFIX);
+            segments.put(key, current);
+            // A new segment starts empty, so its keys are known from the first append on
+            keys.put(current, new HashSet<>());
+        }
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(current, true), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,83 @@
+package dev.lsdmc.Shakedown.data;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One finished shakedown as kept in the history. Contraband counts are keyed
+ * by material name and cover both removed blocks and removed items.
+ */
+public record ShakedownRecord(long startedAt, long endedAt, UUID guard, String guardName, UUID prisoner,
+                              String prisonerName, String world, String region, long blocksScanned,
+                              Map<String, Integer> contraband) {
+
+    public ShakedownRecord {
+        contraband = Collections.unmodifiableMap(new LinkedHashMap<>(contraband));
+    }
+
+    /**
+     * @return the total number of contraband items and blocks removed
+     */
+    public int contrabandTotal() {
+        int total = 0;
+        for (int count : contraband.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Encodes the record as a single tab separated line (without line break).
+     * Contraband is written as {@code MATERIAL=count,...} or {@code -}.
+     */
+    String toLine() {
+        String counts = encodeCounts(contraband);
+        return startedAt + "\t" + endedAt + "\t" + guard + "\t" + guardName + "\t" + prisoner + "\t" + prisonerName
+                + "\t" + world + "\t" + region + "\t" + blocksScanned + "\t" + (counts.isEmpty() ? "-" : counts);
+    }
+
+    /**
+     * Decodes a line written by {@link #toLine()}.
+     *
+     * @return the record, or null if the line is malformed (e.g. a torn write)
+     */
+    @Nullable
+    static ShakedownRecord parse(String line) {
+        String[] parts = line.split("\t", -1);
+        if (parts.length != 10) return null;
+        try {
+            Map<String, Integer> contraband = decodeCounts(parts[9].equals("-") ? "" : parts[9]);
+            return new ShakedownRecord(Long.parseLong(parts[0]), Long.parseLong(parts[1]), UUID.fromString(parts[2]),
+                    parts[3], UUID.fromString(parts[4]), parts[5], parts[6], parts[7], Long.parseLong(parts[8]),
+                    contraband);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Encodes contraband counts as {@code MATERIAL=count,...}; empty for none.
+     */
+    static String encodeCounts(Map<String, Integer> contraband) {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : contraband.entrySet()) {
+            if (out.length() > 0) out.append(',');
+            out.append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        return out.toString();
+    }
+
+    static Map<String, Integer> decodeCounts(String encoded) {
+        Map<String, Integer> contraband = new LinkedHashMap<>();
+        if (encoded.isEmpty()) return contraband;
+        for (String pair : encoded.split(",")) {
+            int eq = pair.indexOf('=');
+            contraband.put(pair.substring(0, eq), Integer.parseInt(pair.substring(eq + 1)));
+        }
+        return contraband;
+    }
+}
@@ -0,0 +1,189 @@
+package dev.lsdmc.Shakedown.data;
+
+import dev.lsdmc.Shakedown.metrics.Metrics;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cooldown store backed by an embedded database. Only a bounded LRU cache
+ * of recently used timestamps is kept in memory; misses are read through
+ * on the database thread. Writes update the cache and are upserted in
+ * batches, coalescing repeated writes to the same identifier.
+ */
+final class SqlCooldownStore implements CooldownStore {
+    private final SqlDatabase database;
+    private final Logger logger;
+    private final Map<String, Long> cache;
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+    private final ScheduledFuture<?> flushTask;
+    private volatile long cooldownSeconds;
+
+    /**
+     * @param cacheSize   maximum timestamps held in memory
+     * @param flushMillis delay between batched writes
+     */
+    SqlCooldownStore(SqlDatabase database, Logger logger, int cacheSize, long flushMillis) throws SQLException {
+        this.database = database;
+        this.logger = logger;
+        this.cache = new LinkedHashMap<>(Math.min(cacheSize, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        database.call(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS cooldowns ("
+                        + "id VARCHAR(64) PRIMARY KEY, last_shakedown BIGINT NOT NULL)");
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_cooldowns_last ON cooldowns (last_shakedown)");
+            }
+            return null;
+        });
+        this.flushTask = database.schedule(this::flush, flushMillis);
+    }
+
+    @Override
+    public CompletableFuture<Long> getLastShakedown(String identifier) {
+        Long cached;
+        synchronized (cache) {
+            cached = cache.get(identifier);
+        }
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return database.submit(connection -> {
+            // Pending writes go first so the read never sees an older value
+            flush(connection);
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT last_shakedown FROM cooldowns WHERE id = ?")) {
+                select.setString(1, identifier);
+                try (ResultSet rs = select.executeQuery()) {
+                    return rs.next() ? rs.getLong(1) : -1L;
+                }
+            }
+        }).thenApply(value -> {
+            synchronized (cache) {
+                // A write that raced the query wins
+                Long current = cache.putIfAbsent(identifier, value);
+                return current != null ? current : value;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> getNextEligible(String identifier) {
+        return getLastShakedown(identifier).thenApply(last -> {
+            long end = last + cooldownSeconds;
+            return last > 0 && end > Instant.now().getEpochSecond() ? end : 0L;
+        });
+    }
+
+    /**
+     * Only used for {@link #getNextEligible}; the cache is bounded by size,
+     * not by age.
+     */
+    @Override
+    public void setCooldown(long seconds) {
+        cooldownSeconds = seconds;
+    }
+
+    @Override
+    public void recordShakedown(String identifier, long epochSeconds) {
+        synchronized (cache) {
+            cache.put(identifier, epochSeconds);
+        }
+        pending.put(identifier, epochSeconds);
+    }
+
+    @Override
+    public boolean isEmpty() throws IOException {
+        try {
+            return database.call(connection -> {
+                try (Statement statement = connection.createStatement();
+                     ResultSet rs = statement.executeQuery("SELECT 1 FROM cooldowns LIMIT 1")) {
+                    return !rs.next();
+                }
+            });
+        } catch (SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    @Override
+    public void importAll(Map<String, Long> data) throws IOException {
+        try {
+            database.call(connection -> {
+                upsert(connection, data);
+                return null;
+            });
+        } catch (SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * Writes everything still pending. The database itself is closed by its
+     * owner.
+     */
+    @Override
+    public void close() {
+        flushTask.cancel(false);
+        try {
+            database.call(connection -> {
+                flush(connection);
+                return null;
+            });
+        } catch (SQLException ex) {
+            logger.log(Level.SEVERE, "Could not flush cooldowns to the database", ex);
+        }
+    }
+
+    private Void flush(Connection connection) throws SQLException {
+        if (pending.isEmpty()) return null;
+        long start = System.nanoTime();
+        Map<String, Long> batch = new HashMap<>(pending);
+        upsert(connection, batch);
+        Metrics.record(Metrics.Phase.PERSIST, start);
+        for (Map.Entry<String, Long> entry : batch.entrySet()) {
+            // Keeps the entry if it was overwritten while the batch was written
+            pending.remove(entry.getKey(), entry.getValue());
+        }
+        return null;
+    }
+
+    /**
+     * Upserts entries as one batch in one transaction.
+     */
+    private void upsert(Connection connection, Map<String, Long> entries) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement upsert = connection.prepareStatement(database.getDialect().upsertCooldown())) {
+            for (Map.Entry<String, Long> entry : entries.entrySet()) {
+                upsert.setString(1, entry.getKey());
+                upsert.setLong(2, entry.getValue());
+                upsert.addBatch();
+            }
+            upsert.executeBatch();
+            connection.commit();
+        } catch (SQLException ex) {
+            connection.rollback();
+            throw ex;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+}
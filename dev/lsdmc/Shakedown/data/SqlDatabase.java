@@ -0,0 +1,161 @@
+package dev.lsdmc.Shakedown.data;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Embedded database file in the plugin folder. A single connection is owned
+ * by a single background thread; all queries are submitted to that thread,
+ * so statements never run on the main thread and never race each other.
+ */
+public final class SqlDatabase {
+    /**
+     * Supported embedded engines and the few statements that differ between them.
+     */
+    public enum Dialect {
+        SQLITE("org.sqlite.JDBC",
+                "INSERT INTO cooldowns (id, last_shakedown) VALUES (?, ?) "
+                        + "ON CONFLICT(id) DO UPDATE SET last_shakedown = excluded.last_shakedown"),
+        H2("org.h2.Driver",
+                "MERGE INTO cooldowns (id, last_shakedown) KEY (id) VALUES (?, ?)");
+
+        private final String driver;
+        private final String upsertCooldown;
+
+        Dialect(String driver, String upsertCooldown) {
+            this.driver = driver;
+            this.upsertCooldown = upsertCooldown;
+        }
+
+        String upsertCooldown() {
+            return upsertCooldown;
+        }
+    }
+
+    /**
+     * Work run against the connection on the database thread.
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    private final Logger logger;
+    private final Dialect dialect;
+    private final Connection connection;
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Opens (and creates if needed) {@code shakedown.db} in the given folder.
+     *
+     * @param fsync whether commits wait until data is on disk
+     */
+    public SqlDatabase(File folder, Dialect dialect, boolean fsync, Logger logger) throws SQLException {
+        this.logger = logger;
+        this.dialect = dialect;
+        folder.mkdirs();
+        try {
+            // Plugin class loaders are not seen by the DriverManager service lookup
+            Class.forName(dialect.driver);
+        } catch (ClassNotFoundException ex) {
+            throw new SQLException("JDBC driver " + dialect.driver + " is not available", ex);
+        }
+        File file = new File(folder, "shakedown");
+        if (dialect == Dialect.SQLITE) {
+            connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath() + ".db");
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("PRAGMA synchronous=" + (fsync ? "FULL" : "NORMAL"));
+            }
+        } else {
+            connection = DriverManager.getConnection("jdbc:h2:" + file.getAbsolutePath()
+                    + (fsync ? "" : ";WRITE_DELAY=1000"));
+        }
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Shakedown-SQL");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public Dialect getDialect() {
+        return dialect;
+    }
+
+    /**
+     * Runs work on the database thread.
+     *
+     * @return a future completed on the database thread
+     */
+    public <T> CompletableFuture<T> submit(Work<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                future.complete(work.run(connection));
+            } catch (Throwable ex) {
+                future.completeExceptionally(ex);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Runs work on the database thread and waits for it. Startup and
+     * shutdown only.
+     */
+    public <T> T call(Work<T> work) throws SQLException {
+        try {
+            return submit(work).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the database", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof SQLException sql) throw sql;
+            throw new SQLException(ex.getCause());
+        }
+    }
+
+    /**
+     * Runs work on the database thread at a fixed delay, e.g. to flush
+     * batched writes. Failures are logged and do not stop the schedule.
+     */
+    public ScheduledFuture<?> schedule(Work<?> work, long delayMillis) {
+        return executor.scheduleWithFixedDelay(() -> {
+            try {
+                work.run(connection);
+            } catch (Throwable ex) {
+                logger.log(Level.SEVERE, "Scheduled database task failed", ex);
+            }
+        }, delayMillis, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Lets queued work finish and closes the connection.
+     */
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warning("Database thread did not stop in time");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            connection.close();
+        } catch (SQLException ex) {
+            logger.log(Level.SEVERE, "Could not close database", ex);
+        }
+    }
+}
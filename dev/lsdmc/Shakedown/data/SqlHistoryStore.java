@@ -0,0 +1,223 @@
+package dev.lsdmc.Shakedown.data;
+
+import dev.lsdmc.Shakedown.metrics.Metrics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * History kept in the embedded database, indexed by prisoner, guard, region
+ * and start time. Records are inserted in batches; queries page with
+ * {@code LIMIT}/{@code OFFSET} on the start time index. Names are cut to
+ * their column size when queued. The rows of a batch that fails are retried
+ * one by one, oldest first and ahead of newer records, and a row that keeps
+ * failing is logged and dropped so it cannot hold up the rest.
+ */
+final class SqlHistoryStore implements HistoryStore {
+    private static final String COLUMNS = "started, ended, guard, guard_name, prisoner, prisoner_name, world, region, "
+            + "blocks_scanned, contraband";
+    private static final String INSERT = "INSERT INTO shakedowns (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int NAME_LENGTH = 32;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final SqlDatabase database;
+    private final Logger logger;
+    private final Queue<ShakedownRecord> pending = new ConcurrentLinkedQueue<>();
+    // Rows of failed batches, oldest first; only touched on the database thread
+    private final Deque<Failed> retries = new ArrayDeque<>();
+    private final ScheduledFuture<?> flushTask;
+
+    SqlHistoryStore(SqlDatabase database, Logger logger, long flushMillis) throws SQLException {
+        this.database = database;
+        this.logger = logger;
+        database.call(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS shakedowns ("
+                        + "started BIGINT NOT NULL, ended BIGINT NOT NULL, "
+                        + "guard VARCHAR(36) NOT NULL, guard_name VARCHAR(32) NOT NULL, "
+                        + "prisoner VARCHAR(36) NOT NULL, prisoner_name VARCHAR(32) NOT NULL, "
+                        + "world VARCHAR(64) NOT NULL, region VARCHAR(64) NOT NULL, "
+                        + "blocks_scanned BIGINT NOT NULL, contraband VARCHAR(4096) NOT NULL)");
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_shakedowns_prisoner ON shakedowns (prisoner, started)");
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_shakedowns_guard ON shakedowns (guard, started)");
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_shakedowns_region ON shakedowns (region, started)");
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_shakedowns_started ON shakedowns (started)");
+            }
+            return null;
+        });
+        this.flushTask = database.schedule(this::flush, flushMillis);
+    }
+
+    @Override
+    public void append(ShakedownRecord record) {
+        // The guard name may be configured free text
+        if (record.guardName().length() > NAME_LENGTH || record.prisonerName().length() > NAME_LENGTH) {
+            record = new ShakedownRecord(record.startedAt(), record.endedAt(), record.guard(),
+                    truncate(record.guardName()), record.prisoner(), truncate(record.prisonerName()), record.world(),
+                    record.region(), record.blocksScanned(), record.contraband());
+        }
+        pending.add(record);
+    }
+
+    @Override
+    public CompletableFuture<Page> query(HistoryQuery query, int page, int pageSize) {
+        int first = HistoryStore.clampPage(page, pageSize);
+        return database.submit(connection -> {
+            flush(connection);
+            String sql;
+            if (query.player() != null) {
+                // UNION keeps each branch on its own index
+                sql = "SELECT " + COLUMNS + " FROM (SELECT * FROM shakedowns WHERE prisoner = ? "
+                        + "UNION ALL SELECT * FROM shakedowns WHERE guard = ? AND prisoner <> ?) h "
+                        + "ORDER BY started DESC LIMIT ? OFFSET ?";
+            } else {
+                sql = "SELECT " + COLUMNS + " FROM shakedowns WHERE region = ? "
+                        + "ORDER BY started DESC LIMIT ? OFFSET ?";
+            }
+            try (PreparedStatement select = connection.prepareStatement(sql)) {
+                int i = 1;
+                if (query.player() != null) {
+                    String id = query.player().toString();
+                    select.setString(i++, id);
+                    select.setString(i++, id);
+                    select.setString(i++, id);
+                } else {
+                    select.setString(i++, query.region());
+                }
+                // One extra row tells whether another page exists
+                select.setInt(i++, pageSize + 1);
+                select.setInt(i, (first - 1) * pageSize);
+                List<ShakedownRecord> records = new ArrayList<>(pageSize + 1);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        records.add(read(rs));
+                    }
+                }
+                boolean hasMore = records.size() > pageSize;
+                return new Page(hasMore ? records.subList(0, pageSize) : records, first, hasMore);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        flushTask.cancel(false);
+        try {
+            database.call(this::flush);
+        } catch (SQLException ex) {
+            logger.log(Level.SEVERE, "Could not flush shakedown history to the database", ex);
+        }
+    }
+
+    private Void flush(Connection connection) throws SQLException {
+        if (retries.isEmpty() && pending.isEmpty()) return null;
+        long start = System.nanoTime();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            // Newer records wait until the older failed rows are written or dropped
+            if (!retryFailed(connection, insert)) return null;
+            List<ShakedownRecord> batch = new ArrayList<>();
+            ShakedownRecord record;
+            while ((record = pending.poll()) != null) {
+                batch.add(record);
+                bind(insert, record);
+                insert.addBatch();
+            }
+            if (batch.isEmpty()) return null;
+            try {
+                insert.executeBatch();
+                connection.commit();
+            } catch (SQLException ex) {
+                connection.rollback();
+                logger.log(Level.WARNING, "Could not insert " + batch.size()
+                        + " shakedown history records; retrying them one by one", ex);
+                for (ShakedownRecord failed : batch) {
+                    retries.addLast(new Failed(failed));
+                }
+                insert.clearBatch();
+                retryFailed(connection, insert);
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+            Metrics.record(Metrics.Phase.PERSIST, start);
+        }
+        return null;
+    }
+
+    /**
+     * Inserts the rows of failed batches one by one, oldest first. A row
+     * that failed on its own {@link #MAX_ATTEMPTS} times is logged and
+     * dropped.
+     *
+     * @return true if no failed rows are left
+     */
+    private boolean retryFailed(Connection connection, PreparedStatement insert) throws SQLException {
+        for (Iterator<Failed> it = retries.iterator(); it.hasNext(); ) {
+            Failed failed = it.next();
+            try {
+                bind(insert, failed.record);
+                insert.executeUpdate();
+                connection.commit();
+                it.remove();
+            } catch (SQLException ex) {
+                connection.rollback();
+                if (++failed.attempts >= MAX_ATTEMPTS) {
+                    it.remove();
+                    logger.log(Level.SEVERE, "Dropping shakedown history record of region " + failed.record.region()
+                            + " started at " + failed.record.startedAt() + " after " + failed.attempts
+                            + " failed inserts", ex);
+                }
+            }
+        }
+        return retries.isEmpty();
+    }
+
+    private static void bind(PreparedStatement insert, ShakedownRecord record) throws SQLException {
+        insert.setLong(1, record.startedAt());
+        insert.setLong(2, record.endedAt());
+        insert.setString(3, record.guard().toString());
+        insert.setString(4, record.guardName());
+        insert.setString(5, record.prisoner().toString());
+        insert.setString(6, record.prisonerName());
+        insert.setString(7, record.world());
+        insert.setString(8, record.region());
+        insert.setLong(9, record.blocksScanned());
+        insert.setString(10, ShakedownRecord.encodeCounts(record.contraband()));
+    }
+
+    private static String truncate(String name) {
+        return name.length() > NAME_LENGTH ? name.substring(0, NAME_LENGTH) : name;
+    }
+
+    private static ShakedownRecord read(ResultSet rs) throws SQLException {
+        return new ShakedownRecord(rs.getLong(1), rs.getLong(2), UUID.fromString(rs.getString(3)), rs.getString(4),
+                UUID.fromString(rs.getString(5)), rs.getString(6), rs.getString(7), rs.getString(8), rs.getLong(9),
+                ShakedownRecord.decodeCounts(rs.getString(10)));
+    }
+
+    private static final class Failed {
+        final ShakedownRecord record;
+        // Failed inserts of the row on its own
+        int attempts;
+
+        Failed(ShakedownRecord record) {
+            this.record = record;
+        }
+    }
+}
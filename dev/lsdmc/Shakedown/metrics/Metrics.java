@@ -0,0 +1,150 @@
+package dev.lsdmc.Shakedown.metrics;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide shakedown instrumentation. Phases are timed with
+ * {@link System#nanoTime()} around the call sites and recorded into
+ * lock-free {@link Histogram}s; totals are {@link LongAdder}s. Everything
+ * here is safe to call from any thread and cheap enough to leave on.
+ */
+public final class Metrics {
+    /**
+     * Timed phases of a shakedown.
+     */
+    public enum Phase {
+        /** Resolving the target to an ARM/WorldGuard region and prisoner. */
+        RESOLVE,
+        /** Scanning the region, wall clock from start to result. */
+        SCAN,
+        /** Applying removals to blocks and containers. */
+        APPLY,
+        /** Running one queued reward or punishment action. */
+        COMMANDS,
+        /** Writing one batch of cooldowns or history to storage, off the main thread. */
+        PERSIST;
+
+        public String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final Map<Phase, Histogram> PHASES = new EnumMap<>(Phase.class);
+    private static final Histogram MAIN_THREAD = new Histogram();
+    private static final Histogram BLOCKS_PER_SECOND = new Histogram();
+    private static final LongAdder RUNS = new LongAdder();
+    private static final LongAdder BLOCKS_SCANNED = new LongAdder();
+    private static final LongAdder CONTAINERS_VISITED = new LongAdder();
+    private static final LongAdder ITEMS_INSPECTED = new LongAdder();
+
+    static {
+        for (Phase phase : Phase.values()) {
+            PHASES.put(phase, new Histogram());
+        }
+    }
+
+    private Metrics() {}
+
+    /**
+     * Records a phase that started at {@code startNanos}.
+     *
+     * @return the elapsed nanoseconds, so callers can add it to a run total
+     */
+    public static long record(Phase phase, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        PHASES.get(phase).record(elapsed);
+        return elapsed;
+    }
+
+    /**
+     * Records the totals of one finished shakedown.
+     *
+     * @param mainThreadNanos time the run spent on the main thread across all phases
+     * @param scanNanos       wall clock time of the scan phase
+     */
+    public static void recordRun(long mainThreadNanos, long scanNanos, long blocksScanned, long containersVisited,
+                                 long itemsInspected) {
+        RUNS.increment();
+        MAIN_THREAD.record(mainThreadNanos);
+        BLOCKS_SCANNED.add(blocksScanned);
+        CONTAINERS_VISITED.add(containersVisited);
+        ITEMS_INSPECTED.add(itemsInspected);
+        if (scanNanos > 0) {
+            BLOCKS_PER_SECOND.record(blocksScanned * 1_000_000_000L / scanNanos);
+        }
+    }
+
+    public static Histogram phase(Phase phase) {
+        return PHASES.get(phase);
+    }
+
+    /**
+     * @return main thread nanoseconds per run
+     */
+    public static Histogram mainThread() {
+        return MAIN_THREAD;
+    }
+
+    public static Histogram blocksPerSecond() {
+        return BLOCKS_PER_SECOND;
+    }
+
+    public static long runs() {
+        return RUNS.sum();
+    }
+
+    public static long blocksScanned() {
+        return BLOCKS_SCANNED.sum();
+    }
+
+    public static long containersVisited() {
+        return CONTAINERS_VISITED.sum();
+    }
+
+    public static long itemsInspected() {
+        return ITEMS_INSPECTED.sum();
+    }
+
+    /**
+     * Renders all metrics in the Prometheus text exposition format.
+     * Histograms are exported as summaries (quantiles, sum and count).
+     */
+    public static String toPrometheus() {
+        StringBuilder out = new StringBuilder(2048);
+        counter(out, "shakedown_runs_total", "Completed shakedowns", runs());
+        counter(out, "shakedown_blocks_scanned_total", "Blocks covered by scans", blocksScanned());
+        counter(out, "shakedown_containers_visited_total", "Container inventories inspected", containersVisited());
+        counter(out, "shakedown_items_inspected_total", "Container items inspected", itemsInspected());
+        out.append("# HELP shakedown_phase_seconds Duration of each shakedown phase\n");
+        out.append("# TYPE shakedown_phase_seconds summary\n");
+        for (Phase phase : Phase.values()) {
+            summary(out, "shakedown_phase_seconds", "phase=\"" + phase.key() + "\",", PHASES.get(phase), 1e-9);
+        }
+        out.append("# HELP shakedown_main_thread_seconds Main thread time per shakedown\n");
+        out.append("# TYPE shakedown_main_thread_seconds summary\n");
+        summary(out, "shakedown_main_thread_seconds", "", MAIN_THREAD, 1e-9);
+        out.append("# HELP shakedown_blocks_per_second Scan throughput per shakedown\n");
+        out.append("# TYPE shakedown_blocks_per_second summary\n");
+        summary(out, "shakedown_blocks_per_second", "", BLOCKS_PER_SECOND, 1);
+        return out.toString();
+    }
+
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void summary(StringBuilder out, String name, String labels, Histogram histogram, double scale) {
+        for (double q : new double[]{0.5, 0.9, 0.99}) {
+            out.append(name).append('{').append(labels).append("quantile=\"").append(q).append("\"} ")
+                    .append(histogram.quantile(q) * scale).append('\n');
+        }
+        String plain = labels.isEmpty() ? "" : "{" + labels.substring(0, labels.length() - 1) + "}";
+        out.append(name).append("_sum").append(plain).append(' ').append(histogram.sum() * scale).append('\n');
+        out.append(name).append("_count").append(plain).append(' ').append(histogram.count()).append('\n');
+    }
+}
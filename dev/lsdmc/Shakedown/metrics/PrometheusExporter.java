@@ -0,0 +1,62 @@
+package dev.lsdmc.Shakedown.metrics;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+
+/**
+ * Periodically writes {@link Metrics#toPrometheus()} to a file for the node
+ * exporter textfile collector. The file is written off the main thread and
+ * replaced atomically, so the collector never reads a partial file.
+ */
+public final class PrometheusExporter {
+    private final Plugin plugin;
+    private BukkitTask task;
+
+    public PrometheusExporter(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * (Re)starts the export. An interval of zero disables it.
+     *
+     * @param file     target file; relative paths resolve against the plugin folder
+     * @param interval delay between writes
+     */
+    public void start(String file, Duration interval) {
+        stop();
+        if (interval.isZero() || interval.isNegative()) return;
+        File target = new File(file);
+        if (!target.isAbsolute()) {
+            target = new File(plugin.getDataFolder(), file);
+        }
+        File output = target;
+        long ticks = Math.max(20, interval.toMillis() / 50);
+        task = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> write(output), ticks, ticks);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private void write(File target) {
+        File temp = new File(target.getPath() + ".tmp");
+        try {
+            Files.writeString(temp.toPath(), Metrics.toPrometheus(), StandardCharsets.UTF_8);
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            plugin.getLogger().warning("Could not write metrics to " + target + ": " + ex.getMessage());
+        }
+    }
+}
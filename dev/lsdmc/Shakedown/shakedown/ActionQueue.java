@@ -0,0 +1,216 @@
+package dev.lsdmc.Shakedown.shakedown;
+
+import dev.lsdmc.Shakedown.config.ActionTemplate;
+import dev.lsdmc.Shakedown.config.TemplateValues;
+import dev.lsdmc.Shakedown.metrics.Metrics;
+import dev.lsdmc.Shakedown.util.Debug;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Runs reward and punishment actions spread over ticks instead of in one
+ * burst. Actions are filled in when queued and run in order, at most the
+ * configured count and time per tick. Economy actions go to the Vault
+ * economy without any command parsing; one whose transaction reports a
+ * failure, so nothing was applied, is retried after a delay until it runs
+ * out of attempts. Every other failure is reported in the log right away
+ * and never re-run: a console command that threw may have applied part of
+ * its effect, and running it again could reward or punish twice. Main
+ * thread only.
+ */
+final class ActionQueue {
+    private final Plugin plugin;
+    private final Deque<Pending> queue = new ArrayDeque<>();
+    private BukkitTask task;
+    private long tick;
+    private long budgetNanos;
+    private int maxPerTick;
+    private int attempts;
+    private long retryDelayTicks;
+    private @Nullable EconomyHook economy;
+    private long completed;
+    private long failed;
+
+    ActionQueue(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Updates the limits. Queued actions pick them up on the next tick; the
+     * economy provider is looked up again.
+     *
+     * @param budgetMillis time spent on actions per tick
+     * @param maxPerTick   actions run per tick
+     * @param attempts     tries per action before it is reported as failed
+     * @param retryDelay   wait between tries
+     */
+    void configure(double budgetMillis, int maxPerTick, int attempts, Duration retryDelay) {
+        this.budgetNanos = (long) (Math.max(0.05, budgetMillis) * 1_000_000L);
+        this.maxPerTick = Math.max(1, maxPerTick);
+        this.attempts = Math.max(1, attempts);
+        this.retryDelayTicks = Math.max(1, retryDelay.toMillis() / 50);
+        this.economy = null;
+    }
+
+    /**
+     * Queues the actions with their placeholders filled in from the values.
+     */
+    void submit(List<ActionTemplate> actions, TemplateValues values) {
+        for (ActionTemplate action : actions) {
+            try {
+                double amount = action.type() == ActionTemplate.Type.CONSOLE ? 0 : action.amount(values);
+                queue.addLast(new Pending(action.type(), action.target(values), amount));
+            } catch (IllegalArgumentException ex) {
+                report(action.toString(), 1, ex.getMessage());
+            }
+        }
+        if (task == null && !queue.isEmpty()) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    long completed() {
+        return completed;
+    }
+
+    long failed() {
+        return failed;
+    }
+
+    /**
+     * Stops the timer and runs whatever is still queued once, so no reward
+     * is lost on shutdown.
+     */
+    void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        Pending action;
+        while ((action = queue.pollFirst()) != null) {
+            action.attempt = attempts;
+            run(action);
+        }
+    }
+
+    private void tick() {
+        tick++;
+        long deadline = System.nanoTime() + budgetNanos;
+        int ran = 0;
+        // Only look at what was queued before this tick, so a retry never runs twice in one
+        for (int left = queue.size(); left > 0 && ran < maxPerTick; left--) {
+            if (ran > 0 && System.nanoTime() >= deadline) break;
+            Pending action = queue.pollFirst();
+            if (action.due > tick) {
+                queue.addLast(action);
+                continue;
+            }
+            run(action);
+            ran++;
+        }
+        if (queue.isEmpty()) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private void run(Pending action) {
+        action.attempt++;
+        long start = System.nanoTime();
+        try {
+            execute(action);
+            Metrics.record(Metrics.Phase.COMMANDS, start);
+            completed++;
+            return;
+        } catch (Retry ex) {
+            if (action.attempt >= attempts) {
+                report(action.toString(), action.attempt, ex.getMessage());
+                return;
+            }
+            Debug.warn("Action '{}' failed (attempt {}/{}): {}", action, action.attempt, attempts, ex.getMessage());
+        } catch (RuntimeException ex) {
+            report(action.toString(), action.attempt, String.valueOf(ex.getMessage()));
+            return;
+        }
+        action.due = tick + retryDelayTicks;
+        queue.addLast(action);
+    }
+
+    private void execute(Pending action) {
+        if (action.type == ActionTemplate.Type.CONSOLE) {
+            if (!Bukkit.dispatchCommand(Bukkit.getConsoleSender(), action.target)) {
+                throw new IllegalStateException("unknown command");
+            }
+            return;
+        }
+        EconomyHook hook = economy();
+        // Nothing ran yet, and the economy plugin may still register its provider
+        if (hook == null) throw new Retry("no Vault economy provider");
+        OfflinePlayer player = Bukkit.getOfflinePlayerIfCached(action.target);
+        if (player == null) throw new IllegalStateException("unknown player " + action.target);
+        if (action.type == ActionTemplate.Type.DEPOSIT) {
+            hook.deposit(player, action.amount);
+        } else {
+            hook.withdraw(player, action.amount);
+        }
+    }
+
+    private @Nullable EconomyHook economy() {
+        // Economy plugins may register after us, so keep looking until one shows up
+        if (economy == null && Bukkit.getPluginManager().isPluginEnabled("Vault")) {
+            economy = VaultEconomy.find();
+        }
+        return economy;
+    }
+
+    private void report(String action, int tries, String reason) {
+        failed++;
+        plugin.getLogger().warning("Shakedown action '" + action + "' failed after " + tries
+                + (tries == 1 ? " attempt: " : " attempts: ") + reason);
+    }
+
+    /**
+     * A failure that applied nothing, such as an economy transaction that
+     * reported failure, so the action may safely run again.
+     */
+    static final class Retry extends RuntimeException {
+        Retry(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private static final class Pending {
+        final ActionTemplate.Type type;
+        final String target;
+        final double amount;
+        int attempt;
+        long due;
+
+        Pending(ActionTemplate.Type type, String target, double amount) {
+            this.type = type;
+            this.target = target;
+            this.amount = amount;
+        }
+
+        @Override
+        public String toString() {
+            return switch (type) {
+                case CONSOLE -> target;
+                case DEPOSIT -> "[deposit] " + target + " " + amount;
+                case WITHDRAW -> "[withdraw] " + target + " " + amount;
+            };
+        }
+    }
+}
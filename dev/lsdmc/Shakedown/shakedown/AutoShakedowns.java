@@ -0,0 +1,115 @@
+package dev.lsdmc.Shakedown.shakedown;
+
+import dev.lsdmc.Shakedown.data.DataManager;
+import dev.lsdmc.Shakedown.util.Debug;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Runs shakedowns on its own at a fixed interval. The cooldown expiries of
+ * online prisoners are kept in a {@link CooldownQueue}, so each round only
+ * pops the players whose cooldown ran out since the last one, then picks a
+ * few of the eligible players at random and hands them to the runner.
+ * Players with {@code shakedown.exempt} are never tracked. Main thread only.
+ */
+final class AutoShakedowns {
+    private final Plugin plugin;
+    private final DataManager dataManager;
+    private final Consumer<List<UUID>> runner;
+    private final CooldownQueue queue = new CooldownQueue();
+    private final Random random = new Random();
+    private BukkitTask task;
+    private boolean enabled;
+    private int perRun;
+    private long cooldownSeconds;
+
+    /**
+     * @param runner starts the shakedowns of the picked prisoners
+     */
+    AutoShakedowns(Plugin plugin, DataManager dataManager, Consumer<List<UUID>> runner) {
+        this.plugin = plugin;
+        this.dataManager = dataManager;
+        this.runner = runner;
+    }
+
+    /**
+     * (Re)starts the rounds with new settings. The cooldowns of all online
+     * players are looked up again, since the expiries depend on the
+     * cooldown length.
+     */
+    void start(boolean enabled, Duration interval, int perRun, Duration cooldown) {
+        stop();
+        this.enabled = enabled;
+        this.perRun = perRun;
+        this.cooldownSeconds = cooldown.toSeconds();
+        if (!enabled) return;
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            track(player);
+        }
+        long ticks = Math.max(20, interval.toMillis() / 50);
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::runRound, ticks, ticks);
+        Debug.info("Automatic shakedowns every {} ticks, {} per round", ticks, perRun);
+    }
+
+    void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        enabled = false;
+        queue.clear();
+    }
+
+    /**
+     * Starts tracking a player who joined, once the end of their cooldown has
+     * been read.
+     */
+    void track(Player player) {
+        if (!enabled || player.hasPermission("shakedown.exempt")) return;
+        UUID id = player.getUniqueId();
+        dataManager.getNextEligible(id.toString()).whenComplete((next, ex) -> {
+            if (ex != null) {
+                Debug.error("Cooldown lookup failed: " + ex.getMessage(), ex);
+                return;
+            }
+            if (enabled && Bukkit.getPlayer(id) != null) {
+                queue.track(id, next);
+            }
+        });
+    }
+
+    /**
+     * Restarts a tracked player's cooldown after a shakedown was recorded.
+     */
+    void recorded(UUID player, long at) {
+        if (enabled && Bukkit.getPlayer(player) != null) {
+            queue.track(player, at + cooldownSeconds);
+        }
+    }
+
+    void untrack(UUID player) {
+        queue.untrack(player);
+    }
+
+    private void runRound() {
+        long now = Instant.now().getEpochSecond();
+        queue.advance(now);
+        List<UUID> picked = queue.pick(perRun, now, random);
+        Debug.info("Automatic round: {} eligible, {} picked", queue.eligibleCount(), picked.size());
+        if (picked.isEmpty()) return;
+        // Picked players wait a full cooldown even if their search is skipped or fails
+        for (UUID id : picked) {
+            queue.track(id, now + cooldownSeconds);
+        }
+        runner.accept(picked);
+    }
+}
@@ -0,0 +1,47 @@
+package dev.lsdmc.Shakedown.shakedown;
+
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import dev.lsdmc.Shakedown.util.RegionShape;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Container;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the containers inside a region from the tile entities of the chunks
+ * it intersects, instead of creating a {@link BlockState} for every block in
+ * the region. The cost is proportional to the number of tile entities rather
+ * than the region volume.
+ */
+final class ContainerLocator {
+    private ContainerLocator() {}
+
+    /**
+     * Lists every container inside the region shape. Must be called on the
+     * main thread.
+     */
+    static List<Container> findContainers(RegionShape shape) {
+        List<Container> containers = new ArrayList<>();
+        World world = shape.getWorld();
+        for (RegionShape.ChunkColumns chunk : shape.getChunks()) {
+            collect(world.getChunkAt(chunk.getChunkX(), chunk.getChunkZ()), shape.getRegion(), containers);
+        }
+        return containers;
+    }
+
+    /**
+     * Adds the containers of a single chunk that lie inside the region.
+     * States are not snapshots, so their inventories are the live ones.
+     */
+    static void collect(Chunk chunk, ProtectedRegion region, List<Container> out) {
+        for (BlockState state : chunk.getTileEntities(
+                block -> region.contains(block.getX(), block.getY(), block.getZ()), false)) {
+            if (state instanceof Container container) {
+                out.add(container);
+            }
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package dev.lsdmc.Shakedown.shakedown;
+
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import dev.lsdmc.Shakedown.util.Debug;
+import dev.lsdmc.Shakedown.util.RegionShape;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Container;
+import org.bukkit.block.DoubleChest;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockFertilizeEvent;
+import org.bukkit.event.block.BlockGrowEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.BlockSpreadEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.event.inventory.InventoryPickupItemEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Optional per-region index of where contraband probably is. A region is
+ * warmed by a full scan; from then on the events that can introduce
+ * contraband (block place, crop growth and bone meal, inventory close,
+ * hopper moves and pickups) record the affected block or container positions. A shakedown
+ * of a warm region only re-checks those positions instead of the whole
+ * region. Regions fall back to a full scan while cold, once their index is
+ * older than the configured max age, or when it overflows or sees an
+ * untrackable change such as pistons moving blocks.
+ */
+public final class ContrabandIndex implements Listener {
+    // world name + region ID -> entry; region IDs are only unique within a world
+    private final Map<String, Entry> entries = new HashMap<>();
+    // world name -> chunk key -> entries whose region touches that chunk
+    private final Map<String, Map<Long, List<Entry>>> byChunk = new HashMap<>();
+    private ContrabandMatcher matcher;
+    private boolean enabled;
+    private long maxAgeMillis;
+    private int maxPositions;
+    // Shared by all entries, so a recreated entry never repeats an earlier value
+    private long sequence;
+
+    public ContrabandIndex(ContrabandMatcher matcher, boolean enabled, Duration maxAge, int maxPositions) {
+        configure(matcher, enabled, maxAge, maxPositions);
+    }
+
+    /**
+     * Applies new settings. Since the contraband definitions may have
+     * changed, every region goes cold.
+     */
+    public void configure(ContrabandMatcher matcher, boolean enabled, Duration maxAge, int maxPositions) {
+        this.matcher = matcher;
+        this.enabled = enabled;
+        this.maxAgeMillis = maxAge.toMillis();
+        this.maxPositions = maxPositions;
+        invalidateAll();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs a shakedown scan of a warm region by re-checking only the indexed
+     * positions. The positions checked here are dropped by
+     * {@link #completeScan} once the removals are applied; positions
+     * recorded in the meantime stay. Must run on the main thread.
+     *
+     * @return the scan result, or null if the region needs a full scan
+     */
+    @Nullable
+    public ScanResult scanIndexed(World world, ProtectedRegion region, NestedContainerScanner nested) {
+        Entry entry = warmEntry(world, region);
+        if (entry == null) return null;
+        ScanResult result = check(world, entry, nested);
+        entry.checkedUpTo = entry.lastChange;
+        return result;
+    }
+
+    /**
+     * Like {@link #scanIndexed}, but leaves the index as it is, for scans
+     * that remove nothing such as previews.
+     *
+     * @return the scan result, or null if the region needs a full scan
+     */
+    @Nullable
+    public ScanResult peekIndexed(World world, ProtectedRegion region, NestedContainerScanner nested) {
+        Entry entry = warmEntry(world, region);
+        return entry == null ? null : check(world, entry, nested);
+    }
+
+    @Nullable
+    private Entry warmEntry(World world, ProtectedRegion region) {
+        if (!enabled) return null;
+        Entry entry = entries.get(key(world, region));
+        if (entry == null || entry.state != State.WARM) return null;
+        if (System.currentTimeMillis() - entry.warmedAt > maxAgeMillis) {
+            Debug.info("Contraband index expired for region={}", region.getId());
+            invalidate(entry.key);
+            return null;
+        }
+        return entry;
+    }
+
+    private ScanResult check(World world, Entry entry, NestedContainerScanner nested) {
+        long start = System.nanoTime();
+        ScanResult result = new ScanResult(world);
+        for (long packed : entry.blocks.keySet()) {
+            int x = ScanResult.unpackX(packed), y = ScanResult.unpackY(packed), z = ScanResult.unpackZ(packed);
+            if (matcher.isContrabandBlock(world, x, y, z)) {
+                result.addBlock(x, y, z);
+            }
+        }
+        for (long packed : entry.containers.keySet()) {
+            Block block = world.getBlockAt(ScanResult.unpackX(packed), ScanResult.unpackY(packed), ScanResult.unpackZ(packed));
+            if (block.getState(false) instanceof Container container) {
+                result.inspectContainer(container, matcher, nested);
+            }
+        }
+        result.addBlocksScanned(entry.blocks.size());
+        result.addMainThreadNanos(System.nanoTime() - start);
+        Debug.info("Indexed scan for region={}: blocks={}, containers={}", entry.region.getId(), entry.blocks.size(),
+                entry.containers.size());
+        return result;
+    }
+
+    /**
+     * @return a value that changes whenever a possible contraband change in
+     * the region is recorded, or -1 if the index does not track the region
+     */
+    public long changeVersion(World world, ProtectedRegion region) {
+        if (!enabled) return -1;
+        Entry entry = entries.get(key(world, region));
+        return entry == null ? -1 : entry.lastChange;
+    }
+
+    /**
+     * Starts warming a region before a full scan. Changes seen while the
+     * scan runs are recorded, so nothing slips through between the scan and
+     * the moment the region turns warm.
+     */
+    public void beginFullScan(World world, ProtectedRegion region) {
+        if (!enabled) return;
+        Entry entry = new Entry(world.getName(), key(world, region), region);
+        invalidate(entry.key);
+        Map<Long, List<Entry>> chunks = byChunk.computeIfAbsent(world.getName(), k -> new HashMap<>());
+        for (RegionShape.ChunkColumns columns : RegionShape.of(world, region).getChunks()) {
+            long key = chunkKey(columns.getChunkX(), columns.getChunkZ());
+            chunks.computeIfAbsent(key, k -> new ArrayList<>(1)).add(entry);
+            entry.chunkKeys.add(key);
+        }
+        entries.put(entry.key, entry);
+    }
+
+    /**
+     * Called once a shakedown's removals are applied. A region whose full
+     * scan just completed turns warm; a warm region forgets the positions
+     * its last {@link #scanIndexed} re-checked. Containers the scan could
+     * not fully open are recorded either way, so the next shakedown checks
+     * them again. Does nothing for regions that were invalidated.
+     *
+     * @param result the scan whose removals were applied
+     */
+    public void completeScan(World world, ProtectedRegion region, ScanResult result) {
+        Entry entry = entries.get(key(world, region));
+        if (entry == null) return;
+        if (entry.state == State.WARMING) {
+            entry.state = State.WARM;
+            entry.warmedAt = System.currentTimeMillis();
+        } else {
+            long checked = entry.checkedUpTo;
+            entry.blocks.values().removeIf(sequence -> sequence <= checked);
+            entry.containers.values().removeIf(sequence -> sequence <= checked);
+        }
+        for (long packed : result.getTruncatedContainers()) {
+            entry.add(entry.containers, packed);
+        }
+    }
+
+    /**
+     * Drops the index of a region so its next shakedown runs a full scan.
+     */
+    public void invalidate(World world, ProtectedRegion region) {
+        invalidate(key(world, region));
+    }
+
+    private void invalidate(String key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) return;
+        Map<Long, List<Entry>> chunks = byChunk.get(entry.world);
+        if (chunks == null) return;
+        for (long key : entry.chunkKeys) {
+            List<Entry> list = chunks.get(key);
+            if (list == null) continue;
+            list.remove(entry);
+            if (list.isEmpty()) chunks.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+        byChunk.clear();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        if (entries.isEmpty()) return;
+        Block block = event.getBlockPlaced();
+        if (matcher.isContrabandBlock(block)) {
+            recordBlock(block);
+        } else if (NestedContainerScanner.canHoldItems(block.getType())) {
+            // A placed shulker box keeps the contents it had as an item
+            recordContainer(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockGrow(BlockGrowEvent event) {
+        if (entries.isEmpty()) return;
+        recordIfContraband(event.getBlock(), event.getNewState());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockSpread(BlockSpreadEvent event) {
+        if (entries.isEmpty()) return;
+        recordIfContraband(event.getBlock(), event.getNewState());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFertilize(BlockFertilizeEvent event) {
+        if (entries.isEmpty()) return;
+        for (BlockState state : event.getBlocks()) {
+            recordIfContraband(state.getBlock(), state);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        if (entries.isEmpty()) return;
+        for (Block block : event.getBlocks()) {
+            invalidateAt(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        if (entries.isEmpty()) return;
+        for (Block block : event.getBlocks()) {
+            invalidateAt(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onInventoryClose(InventoryCloseEvent event) {
+        if (entries.isEmpty()) return;
+        recordHolder(event.getInventory());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryMove(InventoryMoveItemEvent event) {
+        if (entries.isEmpty() || !mayBeContraband(event.getItem())) return;
+        recordHolder(event.getDestination());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryPickup(InventoryPickupItemEvent event) {
+        if (entries.isEmpty() || !mayBeContraband(event.getItem().getItemStack())) return;
+        recordHolder(event.getInventory());
+    }
+
+    private boolean mayBeContraband(ItemStack item) {
+        return NestedContainerScanner.canHoldItems(item.getType()) || matcher.isContraband(item);
+    }
+
+    private void recordIfContraband(Block block, BlockState newState) {
+        // The new state is not placed yet, so judge by type; the shakedown re-checks the real state
+        if (matcher.mayBeContrabandBlock(newState.getType())) {
+            recordBlock(block);
+        }
+    }
+
+    private void recordHolder(Inventory inventory) {
+        // getHolder(false) avoids snapshotting the tile entity
+        InventoryHolder holder = inventory.getHolder(false);
+        if (holder instanceof Container container) {
+            recordContainer(container.getBlock());
+        } else if (holder instanceof DoubleChest chest) {
+            if (chest.getLeftSide() instanceof Container left) recordContainer(left.getBlock());
+            if (chest.getRightSide() instanceof Container right) recordContainer(right.getBlock());
+        }
+    }
+
+    private void recordBlock(Block block) {
+        for (Entry entry : entriesAt(block)) {
+            entry.add(entry.blocks, ScanResult.pack(block.getX(), block.getY(), block.getZ()));
+        }
+    }
+
+    private void recordContainer(Block block) {
+        for (Entry entry : entriesAt(block)) {
+            entry.add(entry.containers, ScanResult.pack(block.getX(), block.getY(), block.getZ()));
+        }
+    }
+
+    private void invalidateAt(Block block) {
+        for (Entry entry : entriesAt(block)) {
+            Debug.info("Contraband index invalidated by piston in region={}", entry.region.getId());
+            invalidate(entry.key);
+        }
+    }
+
+    private List<Entry> entriesAt(Block block) {
+        Map<Long, List<Entry>> chunks = byChunk.get(block.getWorld().getName());
+        if (chunks == null) return List.of();
+        List<Entry> list = chunks.get(chunkKey(block.getX() >> 4, block.getZ() >> 4));
+        if (list == null) return List.of();
+        List<Entry> matches = new ArrayList<>(1);
+        for (Entry entry : list) {
+            if (entry.region.contains(block.getX(), block.getY(), block.getZ())) {
+                matches.add(entry);
+            }
+        }
+        return matches;
+    }
+
+    private static String key(World world, ProtectedRegion region) {
+        return world.getName() + ':' + region.getId().toLowerCase(Locale.ROOT);
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkZ << 32) | (chunkX & 0xFFFFFFFFL);
+    }
+
+    private enum State { WARMING, WARM }
+
+    private final class Entry {
+        private final String world;
+        private final String key;
+        private final ProtectedRegion region;
+        private final List<Long> chunkKeys = new ArrayList<>();
+        // Position -> sequence number of its last recording
+        private final Map<Long, Long> blocks = new HashMap<>();
+        private final Map<Long, Long> containers = new HashMap<>();
+        private State state = State.WARMING;
+        private long warmedAt;
+        // Sequence number of the last recording, or of the entry's creation
+        private long lastChange = ++sequence;
+        // Last sequence number covered by an indexed shakedown scan
+        private long checkedUpTo;
+
+        Entry(String world, String key, ProtectedRegion region) {
+            this.world = world;
+            this.key = key;
+            this.region = region;
+        }
+
+        void add(Map<Long, Long> positions, long packed) {
+            lastChange = ++sequence;
+            positions.put(packed, lastChange);
+            if (blocks.size() + containers.size() > maxPositions) {
+                Debug.info("Contraband index overflow in region={}; falling back to full scan", region.getId());
+                invalidate(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package dev.lsdmc.Shakedown.shakedown;
+
+import dev.lsdmc.Shakedown.config.ConfigManager;
+import dev.lsdmc.Shakedown.config.ContrabandRule;
+import dev.lsdmc.Shakedown.util.Debug;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Registry;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiled form of the contraband definitions in {@code config.yml}. Built
+ * once per load or reload; afterwards all lookups are allocation free apart
+ * from the {@link ItemMeta} copy Bukkit makes for items that actually carry
+ * meta when a meta-based rule exists. Materials are kept in bitsets indexed
+ * by {@link Material#ordinal()}, custom model data in a primitive int set.
+ * Instances are immutable and safe to share with worker threads.
+ */
+public final class ContrabandMatcher {
+    private static final PlainTextComponentSerializer PLAIN = PlainTextComponentSerializer.plainText();
+
+    // Item types that are contraband regardless of meta
+    private final long[] itemMaterials;
+    // Block types that are contraband in every state
+    private final long[] blockMaterials;
+    // Block types that are contraband only in some states (see blockRules)
+    private final long[] blockRuleMaterials;
+    private final IntSet customModelData;
+    private final ItemRule[] itemRules;
+    private final BlockData[] blockRules;
+    // True if any meta-based check exists; lets meta-less items bail out early
+    private final boolean needsMeta;
+    private final PaletteProbe paletteProbe;
+
+    public ContrabandMatcher(ConfigManager configManager) {
+        int size = Material.values().length;
+        itemMaterials = new long[(size + 63) >> 6];
+        blockMaterials = new long[itemMaterials.length];
+        blockRuleMaterials = new long[itemMaterials.length];
+        Set<Material> probeMaterials = EnumSet.noneOf(Material.class);
+
+        // Populate material list; ignore invalid material names
+        for (String name : configManager.getContrabandMaterials()) {
+            Material material = Material.matchMaterial(name.toUpperCase(Locale.ROOT));
+            if (material == null || material.isAir()) {
+                Debug.warn("Ignoring unknown contraband material: " + name);
+                continue;
+            }
+            set(itemMaterials, material);
+            if (material.isBlock()) {
+                set(blockMaterials, material);
+                probeMaterials.add(material);
+            }
+        }
+
+        // Parse customModelData entries; ignore non‑numeric values
+        customModelData = new IntSet();
+        for (String entry : configManager.getContrabandCustomData()) {
+            try {
+                customModelData.add(Integer.parseInt(entry.trim()));
+            } catch (NumberFormatException ex) {
+                Debug.warn("Ignoring non-numeric custom-model-data entry: " + entry);
+            }
+        }
+
+        List<ItemRule> items = new ArrayList<>();
+        List<BlockData> blocks = new ArrayList<>();
+        for (ContrabandRule rule : configManager.getContrabandRules()) {
+            try {
+                if (rule.isBlockRule()) {
+                    BlockData data = Bukkit.createBlockData(rule.block());
+                    blocks.add(data);
+                    set(blockRuleMaterials, data.getMaterial());
+                } else {
+                    items.add(ItemRule.compile(rule));
+                }
+            } catch (IllegalArgumentException ex) {
+                // Covers bad block data, unknown materials and bad regexes
+                Debug.warn("Ignoring invalid contraband rule " + rule + ": " + ex.getMessage());
+            }
+        }
+        itemRules = items.toArray(new ItemRule[0]);
+        blockRules = blocks.toArray(new BlockData[0]);
+        needsMeta = !customModelData.isEmpty() || itemRules.length > 0;
+        paletteProbe = PaletteProbe.of(probeMaterials, blockRules);
+    }
+
+    /**
+     * Determines whether the given item should be treated as contraband.
+     *
+     * @param item the item to evaluate
+     * @return true if the item is contraband, false otherwise
+     */
+    public boolean isContraband(ItemStack item) {
+        if (item == null) {
+            return false;
+        }
+        Material type = item.getType();
+        if (type.isAir()) {
+            return false;
+        }
+        // Material match
+        if (get(itemMaterials, type)) {
+            return true;
+        }
+        // hasItemMeta() does not copy, getItemMeta() does; only copy when a meta rule could match
+        if (!needsMeta || !item.hasItemMeta()) {
+            return false;
+        }
+        ItemMeta meta = item.getItemMeta();
+        // Custom model data match
+        if (meta.hasCustomModelData() && customModelData.contains(meta.getCustomModelData())) {
+            return true;
+        }
+        for (ItemRule rule : itemRules) {
+            if (rule.matches(type, meta)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks a block in a chunk snapshot. Block data is only read for types
+     * that have state-specific rules. Safe to call from worker threads.
+     */
+    public boolean isContrabandBlock(ChunkSnapshot snapshot, int localX, int y, int localZ) {
+        Material type = snapshot.getBlockType(localX, y, localZ);
+        if (get(blockMaterials, type)) return true;
+        return get(blockRuleMaterials, type) && matchesBlockRules(snapshot.getBlockData(localX, y, localZ));
+    }
+
+    /**
+     * Checks a block in a loaded world. Must run on the main thread.
+     */
+    public boolean isContrabandBlock(World world, int x, int y, int z) {
+        Material type = world.getType(x, y, z);
+        if (get(blockMaterials, type)) return true;
+        return get(blockRuleMaterials, type) && matchesBlockRules(world.getBlockData(x, y, z));
+    }
+
+    /**
+     * Cheap pre-check on a block type alone: true if blocks of this type are
+     * contraband in at least one state.
+     */
+    public boolean mayBeContrabandBlock(Material type) {
+        return get(blockMaterials, type) || get(blockRuleMaterials, type);
+    }
+
+    /**
+     * Checks a live block. Must run on the main thread.
+     */
+    public boolean isContrabandBlock(Block block) {
+        return isContrabandBlock(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * @return the probe used to skip chunks that cannot hold contraband blocks
+     */
+    PaletteProbe getPaletteProbe() {
+        return paletteProbe;
+    }
+
+    private boolean matchesBlockRules(BlockData data) {
+        for (BlockData rule : blockRules) {
+            if (rule.matches(data)) return true;
+        }
+        return false;
+    }
+
+    private static void set(long[] bits, Material material) {
+        int ordinal = material.ordinal();
+        bits[ordinal >> 6] |= 1L << (ordinal & 63);
+    }
+
+    private static boolean get(long[] bits, Material material) {
+        int ordinal = material.ordinal();
+        return (bits[ordinal >> 6] & (1L << (ordinal & 63))) != 0;
+    }
+
+    /**
+     * Item rule compiled from a {@link ContrabandRule}. Every condition that
+     * is set must hold for the rule to match.
+     */
+    private record ItemRule(Material material, NamespacedKey pdcKey, Pattern name, Pattern lore,
+                            Enchantment[] enchantments) {
+
+        static ItemRule compile(ContrabandRule rule) {
+            // Without any condition the rule would match every item that has meta
+            if (rule.material() == null && rule.pdcKey() == null && rule.name() == null && rule.lore() == null
+                    && rule.enchantments().isEmpty()) {
+                throw new IllegalArgumentException("rule sets no condition");
+            }
+            Material material = null;
+            if (rule.material() != null) {
+                material = Material.matchMaterial(rule.material());
+                if (material == null) throw new IllegalArgumentException("unknown material " + rule.material());
+            }
+            NamespacedKey key = null;
+            if (rule.pdcKey() != null) {
+                key = NamespacedKey.fromString(rule.pdcKey().toLowerCase(Locale.ROOT));
+                if (key == null) throw new IllegalArgumentException("invalid pdc-key " + rule.pdcKey());
+            }
+            List<Enchantment> enchantments = new ArrayList<>();
+            for (String name : rule.enchantments()) {
+                NamespacedKey enchantKey = NamespacedKey.fromString(name.toLowerCase(Locale.ROOT));
+                Enchantment enchantment = enchantKey == null ? null : Registry.ENCHANTMENT.get(enchantKey);
+                if (enchantment == null) throw new IllegalArgumentException("unknown enchantment " + name);
+                enchantments.add(enchantment);
+            }
+            try {
+                return new ItemRule(material, key,
+                        rule.name() == null ? null : Pattern.compile(rule.name()),
+                        rule.lore() == null ? null : Pattern.compile(rule.lore()),
+                        enchantments.toArray(new Enchantment[0]));
+            } catch (PatternSyntaxException ex) {
+                throw new IllegalArgumentException("invalid regex: " + ex.getDescription());
+            }
+        }
+
+        boolean matches(Material type, ItemMeta meta) {
+            if (material != null && material != type) return false;
+            if (pdcKey != null && !meta.getPersistentDataContainer().has(pdcKey)) return false;
+            if (enchantments.length > 0) {
+                if (!meta.hasEnchants()) return false;
+                boolean any = false;
+                for (Enchantment enchantment : enchantments) {
+                    if (meta.hasEnchant(enchantment)) {
+                        any = true;
+                        break;
+                    }
+                }
+                if (!any) return false;
+            }
+            if (name != null) {
+                Component displayName = meta.displayName();
+                if (displayName == null || !name.matcher(PLAIN.serialize(displayName)).find()) return false;
+            }
+            if (lore != null) {
+                List<Component> lines = meta.lore();
+                if (lines == null) return false;
+                boolean any = false;
+                for (Component line : lines) {
+                    if (lore.matcher(PLAIN.serialize(line)).find()) {
+                        any = true;
+                        break;
+                    }
+                }
+                if (!any) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "ItemRule{material=" + material + ", pdcKey=" + pdcKey + ", name=" + name + ", lore=" + lore
+                    + ", enchantments=" + Arrays.toString(enchantments) + "}";
+        }
+    }
+
+    /**
+     * Minimal open-addressing set of ints, so custom model data lookups do
+     * not box. Only the operations the matcher needs are implemented.
+     */
+    static final class IntSet {
+        private static final int FREE = 0;
+        private int[] slots = new int[16];
+        private boolean containsZero;
+        private int size;
+
+        void add(int value) {
+            if (value == FREE) {
+                if (!containsZero) size++;
+                containsZero = true;
+                return;
+            }
+            if ((size + 1) * 2 > slots.length) {
+                rehash(slots.length * 2);
+            }
+            if (insert(slots, value)) size++;
+        }
+
+        boolean contains(int value) {
+            if (value == FREE) return containsZero;
+            int mask = slots.length - 1;
+            for (int i = mix(value) & mask; ; i = (i + 1) & mask) {
+                int slot = slots[i];
+                if (slot == value) return true;
+                if (slot == FREE) return false;
+            }
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void rehash(int capacity) {
+            int[] next = new int[capacity];
+            for (int slot : slots) {
+                if (slot != FREE) insert(next, slot);
+            }
+            slots = next;
+        }
+
+        private static boolean insert(int[] table, int value) {
+            int mask = table.length - 1;
+            for (int i = mix(value) & mask; ; i = (i + 1) & mask) {
+                if (table[i] == value) return false;
+                if (table[i] == FREE) {
+                    table[i] = value;
+                    return true;
+                }
+            }
+        }
+
+        private static int mix(int value) {
+            int h = value * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package dev.lsdmc.Shakedown.shakedown;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Cooldown expiries of the online players, ordered in a min-heap so the
+ * players whose cooldown ran out can be found in O(log n) each without
+ * walking every cooldown. Entries are invalidated lazily: a newer expiry for
+ * the same player is pushed alongside the old one, and heap entries that no
+ * longer match the player's current expiry are dropped when polled. Players
+ * past their expiry sit in an eligible list with O(1) removal. Main thread
+ * only.
+ */
+final class CooldownQueue {
+    private record Expiry(long at, UUID player) {
+    }
+
+    private final PriorityQueue<Expiry> heap = new PriorityQueue<>(Comparator.comparingLong(Expiry::at));
+    // Current expiry (epoch seconds) of every tracked player
+    private final Map<UUID, Long> expiries = new HashMap<>();
+    private final List<UUID> eligible = new ArrayList<>();
+    private final Map<UUID, Integer> eligibleIndex = new HashMap<>();
+
+    /**
+     * Tracks a player, replacing any previous expiry.
+     *
+     * @param expiresAt epoch second the player's cooldown ends; 0 or less if it already has
+     */
+    void track(UUID player, long expiresAt) {
+        expiries.put(player, expiresAt);
+        removeEligible(player);
+        heap.add(new Expiry(expiresAt, player));
+    }
+
+    /**
+     * Stops tracking a player, e.g. on quit. Their heap entry becomes stale.
+     */
+    void untrack(UUID player) {
+        expiries.remove(player);
+        removeEligible(player);
+    }
+
+    void clear() {
+        heap.clear();
+        expiries.clear();
+        eligible.clear();
+        eligibleIndex.clear();
+    }
+
+    /**
+     * Moves every player whose cooldown ended by {@code now} to the eligible list.
+     */
+    void advance(long now) {
+        while (!heap.isEmpty() && heap.peek().at() <= now) {
+            Expiry expiry = heap.poll();
+            Long current = expiries.get(expiry.player());
+            if (current == null || current != expiry.at()) continue;
+            if (!eligibleIndex.containsKey(expiry.player())) {
+                eligibleIndex.put(expiry.player(), eligible.size());
+                eligible.add(expiry.player());
+            }
+        }
+    }
+
+    int eligibleCount() {
+        return eligible.size();
+    }
+
+    /**
+     * Picks up to {@code count} distinct eligible players at random, weighted
+     * by how long they have been eligible: one point plus one per hour
+     * overdue, capped at a day. Picked players stay eligible until their
+     * next shakedown is tracked.
+     */
+    List<UUID> pick(int count, long now, Random random) {
+        List<UUID> picked = new ArrayList<>(Math.min(count, eligible.size()));
+        if (eligible.isEmpty() || count <= 0) return picked;
+        long[] weights = new long[eligible.size()];
+        long total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            long overdueHours = Math.max(0, now - expiries.getOrDefault(eligible.get(i), now)) / 3600;
+            weights[i] = 1 + Math.min(24, overdueHours);
+            total += weights[i];
+        }
+        while (picked.size() < count && total > 0) {
+            long roll = (long) (random.nextDouble() * total);
+            int i = 0;
+            while (roll >= weights[i]) {
+                roll -= weights[i];
+                i++;
+            }
+            picked.add(eligible.get(i));
+            total -= weights[i];
+            weights[i] = 0;
+        }
+        return picked;
+    }
+
+    private void removeEligible(UUID player) {
+        Integer index = eligibleIndex.remove(player);
+        if (index == null) return;
+        // Swap with the last element so removal stays O(1)
+        UUID last = eligible.remove(eligible.size() - 1);
+        if (index < eligible.size()) {
+            eligible.set(index, last);
+            eligibleIndex.put(last, index);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package dev.lsdmc.Shakedown.shakedown;
+
+import org.bukkit.OfflinePlayer;
+
+/**
+ * Moves money for economy actions. Implementations throw
+ * {@link ActionQueue.Retry} when the transaction reported failure and
+ * nothing was applied; any other runtime exception is not retried.
+ */
+interface EconomyHook {
+    void deposit(OfflinePlayer player, double amount);
+
+    void withdraw(OfflinePlayer player, double amount);
+}
@@ -0,0 +1,37 @@
+package dev.lsdmc.Shakedown.shakedown;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * Who a shakedown is run by: a staff member, or the configured system
+ * identity of automatic shakedowns. The name and UUID fill the
+ * {@code {guard}} placeholder and the history.
+ *
+ * @param player the staff member, or null for the system identity
+ */
+record Guard(UUID uuid, String name, @Nullable Player player) {
+
+    static Guard of(Player player) {
+        return new Guard(player.getUniqueId(), player.getName(), player);
+    }
+
+    static Guard system(UUID uuid, String name) {
+        return new Guard(uuid, name, null);
+    }
+
+    /**
+     * Sends a message to the staff member; the system identity has no one
+     * to tell.
+     */
+    void sendMessage(Component message) {
+        if (player != null) player.sendMessage(message);
+    }
+
+    boolean isSystem() {
+        return player == null;
+    }
+}
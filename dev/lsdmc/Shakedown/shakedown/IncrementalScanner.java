@@ -0,0 +1,281 @@
+package dev.lsdmc.Shakedown.shakedown;
+
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import dev.lsdmc.Shakedown.util.Debug;
+import dev.lsdmc.Shakedown.util.RegionShape;
+import net.kyori.adventure.bossbar.BossBar;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.block.Container;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Resumable, tick-budgeted region scanner. Every tick the scanner spends at
+ * most the configured time and block budget, shared round-robin between all
+ * running scans, then yields until the next tick. Each scan can show its
+ * progress to a viewer (usually the guard) through a boss bar.
+ */
+public final class IncrementalScanner {
+    // Checking the clock on every block would cost more than the check itself
+    private static final int CLOCK_CHECK_INTERVAL = 64;
+    // Smallest slice handed to a job so many concurrent scans still progress
+    private static final int MIN_SLICE = 256;
+
+    private final Plugin plugin;
+    private final MiniMessage mini = MiniMessage.miniMessage();
+    private final Deque<Job> jobs = new ArrayDeque<>();
+    private BukkitTask task;
+    private long budgetNanos;
+    private int budgetBlocks;
+
+    /**
+     * @param plugin       owning plugin used for scheduling
+     * @param budgetMillis time budget per tick in milliseconds
+     * @param budgetBlocks block budget per tick; 0 or less means time only
+     */
+    public IncrementalScanner(Plugin plugin, double budgetMillis, int budgetBlocks) {
+        this.plugin = plugin;
+        setBudget(budgetMillis, budgetBlocks);
+    }
+
+    /**
+     * Updates the per-tick budgets. Running scans pick them up on the next
+     * tick.
+     */
+    public void setBudget(double budgetMillis, int budgetBlocks) {
+        this.budgetNanos = (long) (Math.max(0.05, budgetMillis) * 1_000_000L);
+        this.budgetBlocks = budgetBlocks > 0 ? budgetBlocks : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Queues a scan of the region. Nothing of the region is loaded until the
+     * scan's first tick. Must be called on the main thread.
+     *
+     * @param world   the world containing the region
+     * @param region  the region to scan
+     * @param matcher the contraband definitions to match against
+     * @param nested  nested container scanner of this shakedown
+     * @param viewer  player shown a progress boss bar, or null for none
+     * @return a future completed on the main thread with the scan result
+     */
+    public CompletableFuture<ScanResult> scan(World world, ProtectedRegion region, ContrabandMatcher matcher,
+                                              NestedContainerScanner nested, @Nullable Player viewer) {
+        long start = System.nanoTime();
+        Job job = new Job(world, region, matcher, nested, viewer);
+        job.result.addMainThreadNanos(System.nanoTime() - start);
+        jobs.addLast(job);
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+        Debug.info("Queued incremental scan for region={}, blocks={}, queued={}", region.getId(), job.total,
+                jobs.size());
+        return job.future;
+    }
+
+    /**
+     * Cancels all running scans. Their futures complete exceptionally with a
+     * {@link CancellationException}.
+     */
+    public void shutdown() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        List<Job> pending = new ArrayList<>(jobs);
+        jobs.clear();
+        for (Job job : pending) {
+            job.hideBar();
+            job.future.completeExceptionally(new CancellationException("Scanner shut down"));
+        }
+    }
+
+    private void tick() {
+        long deadline = System.nanoTime() + budgetNanos;
+        int blocksLeft = budgetBlocks;
+        int slices = jobs.size();
+        while (slices > 0 && blocksLeft > 0) {
+            long now = System.nanoTime();
+            if (now >= deadline) break;
+            Job job = jobs.pollFirst();
+            // Fair share of what is left this tick; budget a job leaves unused flows to the next
+            int share = Math.min(blocksLeft, Math.max(MIN_SLICE, blocksLeft / slices));
+            long sliceDeadline = now + (deadline - now) / slices;
+            slices--;
+            try {
+                blocksLeft -= job.step(share, sliceDeadline);
+                job.result.addMainThreadNanos(System.nanoTime() - now);
+            } catch (Throwable ex) {
+                job.hideBar();
+                job.future.completeExceptionally(ex);
+                continue;
+            }
+            if (job.isFinished()) {
+                job.hideBar();
+                job.future.complete(job.result);
+            } else {
+                jobs.addLast(job);
+            }
+        }
+        for (Job job : jobs) {
+            job.updateBar();
+        }
+        if (jobs.isEmpty() && task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * State of a single resumable scan. The cursor walks the region shape
+     * chunk by chunk, column by column, bottom to top, so each tick resumes
+     * exactly where the last one stopped. A chunk is only loaded when the
+     * cursor reaches it: its containers are listed from the tile entities,
+     * one budget unit each, its blocks are scanned unless the palette rules
+     * out contraband, and then its containers are inspected, each costing its
+     * slot count. Progress is estimated from the volume covered.
+     */
+    private final class Job {
+        private final World world;
+        private final ContrabandMatcher matcher;
+        private final NestedContainerScanner nested;
+        private final ScanResult result;
+        private final CompletableFuture<ScanResult> future = new CompletableFuture<>();
+        private final BossBar bar;
+        private final Player viewer;
+        private final RegionShape shape;
+        private final List<RegionShape.ChunkColumns> chunks;
+        private final int minY, maxY;
+        // Containers of the current chunk
+        private final List<Container> containers = new ArrayList<>();
+        private final long total;
+        private int chunkIndex = -1, column, baseX, baseZ, y;
+        private boolean scanningBlocks;
+        private boolean finished;
+        private int nextContainer;
+        private long visited;
+
+        Job(World world, ProtectedRegion region, ContrabandMatcher matcher, NestedContainerScanner nested,
+            @Nullable Player viewer) {
+            this.world = world;
+            this.matcher = matcher;
+            this.nested = nested;
+            this.viewer = viewer;
+            this.result = new ScanResult(world);
+            this.shape = RegionShape.of(world, region);
+            this.chunks = shape.getChunks();
+            this.minY = shape.getMinY();
+            this.maxY = shape.getMaxY();
+            this.total = shape.getVolume();
+            if (viewer != null) {
+                this.bar = BossBar.bossBar(
+                        mini.deserialize("<#9D4EDD>Shakedown</#9D4EDD> <#ADB5BD>»</#ADB5BD> <white>" + region.getId() + "</white>"),
+                        0f, BossBar.Color.PURPLE, BossBar.Overlay.PROGRESS);
+                viewer.showBossBar(bar);
+            } else {
+                this.bar = null;
+            }
+        }
+
+        /**
+         * Visits up to {@code maxBlocks} blocks, container slots or listed
+         * containers, or until the deadline passes.
+         *
+         * @return the budget units used
+         */
+        int step(int maxBlocks, long deadline) {
+            int done = 0;
+            int scanned = 0;
+            while (done < maxBlocks && !finished) {
+                if (scanningBlocks) {
+                    int x = baseX | (column & 15);
+                    int z = baseZ | (column >> 4);
+                    if (matcher.isContrabandBlock(world, x, y, z)) {
+                        result.addBlock(x, y, z);
+                    }
+                    advance();
+                    done++;
+                    if (++scanned % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() >= deadline) {
+                        break;
+                    }
+                    continue;
+                }
+                if (nextContainer < containers.size()) {
+                    Container container = containers.get(nextContainer++);
+                    result.inspectContainer(container, matcher, nested);
+                    done += container.getInventory().getSize();
+                } else if (++chunkIndex < chunks.size()) {
+                    done += enterChunk(chunks.get(chunkIndex));
+                } else {
+                    finished = true;
+                }
+                if (System.nanoTime() >= deadline) break;
+            }
+            result.addBlocksScanned(scanned);
+            visited += scanned;
+            return done;
+        }
+
+        private void advance() {
+            if (++y <= maxY) return;
+            y = minY;
+            column = chunks.get(chunkIndex).nextColumn(column + 1);
+            if (column < 0) {
+                scanningBlocks = false;
+            }
+        }
+
+        /**
+         * Loads a chunk, lists its containers and points the cursor at its
+         * first column, unless its palette cannot hold contraband blocks.
+         * Skipped blocks count as visited.
+         *
+         * @return the budget units used: one per container listed, at least one
+         */
+        private int enterChunk(RegionShape.ChunkColumns columns) {
+            Chunk chunk = world.getChunkAt(columns.getChunkX(), columns.getChunkZ());
+            containers.clear();
+            nextContainer = 0;
+            ContainerLocator.collect(chunk, shape.getRegion(), containers);
+            if (matcher.getPaletteProbe().mayContain(chunk::contains)) {
+                baseX = columns.getChunkX() << 4;
+                baseZ = columns.getChunkZ() << 4;
+                column = columns.nextColumn(0);
+                y = minY;
+                scanningBlocks = column >= 0;
+            } else {
+                long volume = shape.getVolume(columns);
+                visited += volume;
+                result.addBlocksScanned(volume);
+            }
+            return Math.max(1, containers.size());
+        }
+
+        boolean isFinished() {
+            return finished;
+        }
+
+        void updateBar() {
+            if (bar != null) {
+                bar.progress(total == 0 ? 1f : Math.min(1f, (float) visited / total));
+            }
+        }
+
+        void hideBar() {
+            if (bar != null && viewer != null) {
+                viewer.hideBossBar(bar);
+            }
+        }
+    }
+}
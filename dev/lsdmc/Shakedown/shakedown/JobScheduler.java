@@ -0,0 +1,83 @@
+package dev.lsdmc.Shakedown.shakedown;
+
+import dev.lsdmc.Shakedown.util.Debug;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * FIFO queue of shakedown jobs with a cap on how many run at once. A job is
+ * started by calling its supplier and counts as running until the returned
+ * future completes; then the next queued job is started. Main thread only,
+ * and the job futures are expected to complete on the main thread too.
+ */
+final class JobScheduler {
+    private final Deque<Supplier<CompletableFuture<?>>> queue = new ArrayDeque<>();
+    private int running;
+    private int maxConcurrent;
+    private boolean pumping;
+
+    JobScheduler(int maxConcurrent) {
+        setMaxConcurrent(maxConcurrent);
+    }
+
+    /**
+     * Changes the concurrency cap. Running jobs are not interrupted if the
+     * cap is lowered.
+     */
+    void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        pump();
+    }
+
+    void submit(Supplier<CompletableFuture<?>> job) {
+        queue.addLast(job);
+        pump();
+    }
+
+    int queued() {
+        return queue.size();
+    }
+
+    int running() {
+        return running;
+    }
+
+    /**
+     * Drops all jobs that have not started yet.
+     *
+     * @return the number of dropped jobs
+     */
+    int clear() {
+        int dropped = queue.size();
+        queue.clear();
+        return dropped;
+    }
+
+    private void pump() {
+        // A job that is already done frees its slot right away; the loop below carries on instead of recursing
+        if (pumping) return;
+        pumping = true;
+        try {
+            while (running < maxConcurrent && !queue.isEmpty()) {
+                Supplier<CompletableFuture<?>> job = queue.pollFirst();
+                running++;
+                CompletableFuture<?> future;
+                try {
+                    future = job.get();
+                } catch (Throwable ex) {
+                    Debug.error("Shakedown job failed to start: " + ex.getMessage(), ex);
+                    future = CompletableFuture.completedFuture(null);
+                }
+                future.whenComplete((ignored, ex) -> {
+                    running--;
+                    pump();
+                });
+            }
+        } finally {
+            pumping = false;
+        }
+    }
+}
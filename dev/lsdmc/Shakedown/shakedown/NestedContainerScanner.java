@@ -0,0 +1,163 @@
+package dev.lsdmc.Shakedown.shakedown;
+
+import dev.lsdmc.Shakedown.util.Debug;
+import org.bukkit.Material;
+import org.bukkit.block.ShulkerBox;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.BlockStateMeta;
+import org.bukkit.inventory.meta.BundleMeta;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Looks for contraband hidden inside item containers such as shulker boxes
+ * and bundles. Nested contents are only deserialized when a cheap material
+ * check says the item can hold items and the item actually carries meta.
+ * One instance is created per shakedown and enforces a depth limit and an
+ * item budget across all containers of that shakedown.
+ */
+public final class NestedContainerScanner {
+    private static final Set<Material> HOLDERS = EnumSet.noneOf(Material.class);
+
+    static {
+        for (Material material : Material.values()) {
+            String name = material.name();
+            if (!name.startsWith("LEGACY_") && (name.endsWith("SHULKER_BOX") || name.endsWith("BUNDLE"))) {
+                HOLDERS.add(material);
+            }
+        }
+    }
+
+    private final ContrabandMatcher matcher;
+    private final int maxDepth;
+    private int budget;
+    private boolean exhaustedLogged;
+    private long truncations;
+
+    /**
+     * @param matcher    contraband definitions to match nested items against
+     * @param maxDepth   how many container levels to open; 0 disables nested scanning
+     * @param itemBudget maximum nested items inspected during one shakedown
+     */
+    public NestedContainerScanner(ContrabandMatcher matcher, int maxDepth, int itemBudget) {
+        this.matcher = matcher;
+        this.maxDepth = maxDepth;
+        this.budget = itemBudget;
+    }
+
+    /**
+     * @return true if items of this type may contain other items
+     */
+    static boolean canHoldItems(Material type) {
+        return HOLDERS.contains(type);
+    }
+
+    /**
+     * @return how often a nested item was left unopened so far, because the
+     * budget was spent or the depth limit was reached
+     */
+    long truncations() {
+        return truncations;
+    }
+
+    /**
+     * Checks whether a (non-contraband) item hides contraband in its nested
+     * contents, charging every inspected nested item to the budget. Returns
+     * false once the budget is spent; {@link #truncations()} tells whether
+     * anything was left unopened.
+     */
+    public boolean containsContraband(ItemStack item) {
+        return maxDepth > 0 && containsContraband(item, 1);
+    }
+
+    private boolean containsContraband(ItemStack item, int depth) {
+        if (item == null || !canHoldItems(item.getType()) || !item.hasItemMeta()) {
+            return false;
+        }
+        for (ItemStack nested : contents(item.getItemMeta())) {
+            if (nested == null || nested.getType().isAir()) continue;
+            if (budget <= 0) {
+                if (!exhaustedLogged) {
+                    exhaustedLogged = true;
+                    Debug.warn("Nested container item budget exhausted; remaining nested items are not inspected");
+                }
+                truncations++;
+                return false;
+            }
+            budget--;
+            if (matcher.isContraband(nested)) return true;
+            if (depth < maxDepth) {
+                if (containsContraband(nested, depth + 1)) return true;
+            } else if (canHoldItems(nested.getType()) && nested.hasItemMeta()) {
+                truncations++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes nested contraband from an item in place, up to the given depth.
+     * Must run on the main thread.
+     *
+     * @param item     the container item to clean
+     * @param matcher  contraband definitions
+     * @param maxDepth how many container levels to open
+     * @param removed  receives the removed contraband items
+     * @return true if the item was modified
+     */
+    static boolean strip(ItemStack item, ContrabandMatcher matcher, int maxDepth, List<ItemStack> removed) {
+        if (maxDepth <= 0 || item == null || !canHoldItems(item.getType()) || !item.hasItemMeta()) {
+            return false;
+        }
+        ItemMeta meta = item.getItemMeta();
+        boolean changed = false;
+        if (meta instanceof BlockStateMeta stateMeta && stateMeta.hasBlockState()
+                && stateMeta.getBlockState() instanceof ShulkerBox box) {
+            Inventory inv = box.getInventory();
+            for (int slot = 0; slot < inv.getSize(); slot++) {
+                ItemStack nested = inv.getItem(slot);
+                if (nested == null) continue;
+                if (matcher.isContraband(nested)) {
+                    removed.add(nested.clone());
+                    inv.setItem(slot, null);
+                    changed = true;
+                } else if (strip(nested, matcher, maxDepth - 1, removed)) {
+                    inv.setItem(slot, nested);
+                    changed = true;
+                }
+            }
+            if (changed) stateMeta.setBlockState(box);
+        } else if (meta instanceof BundleMeta bundle && bundle.hasItems()) {
+            List<ItemStack> kept = new ArrayList<>();
+            for (ItemStack nested : bundle.getItems()) {
+                if (matcher.isContraband(nested)) {
+                    removed.add(nested.clone());
+                    changed = true;
+                } else {
+                    changed |= strip(nested, matcher, maxDepth - 1, removed);
+                    kept.add(nested);
+                }
+            }
+            if (changed) bundle.setItems(kept);
+        }
+        if (changed) item.setItemMeta(meta);
+        return changed;
+    }
+
+    private static List<ItemStack> contents(ItemMeta meta) {
+        if (meta instanceof BlockStateMeta stateMeta && stateMeta.hasBlockState()
+                && stateMeta.getBlockState() instanceof ShulkerBox box) {
+            return Arrays.asList(box.getInventory().getContents());
+        }
+        if (meta instanceof BundleMeta bundle && bundle.hasItems()) {
+            return bundle.getItems();
+        }
+        return List.of();
+    }
+}
@@ -0,0 +1,157 @@
+package dev.lsdmc.Shakedown.shakedown;
+
+import dev.lsdmc.Shakedown.util.Debug;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.Directional;
+import org.bukkit.block.data.type.Bamboo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Lets scans skip whole chunks whose block palettes cannot hold contraband.
+ * Bukkit only exposes palette lookups for exact block states
+ * ({@code Chunk#contains(BlockData)} and {@code ChunkSnapshot#contains(BlockData)}),
+ * so every state of every contraband block material is enumerated once when
+ * the contraband list is loaded. If any material has a property that cannot
+ * be enumerated the probe is disabled and every chunk is visited.
+ */
+final class PaletteProbe {
+    // Guards against materials whose state space explodes (e.g. redstone wire)
+    private static final int MAX_STATES = 4096;
+    private static final int MAX_INT_VALUE = 25;
+
+    private final BlockData[] states;
+
+    private PaletteProbe(BlockData[] states) {
+        this.states = states;
+    }
+
+    /**
+     * Builds a probe for the given contraband materials and block data rules.
+     * Materials that are not blocks are ignored since they can never be
+     * placed. For rules only the states the rule matches are probed.
+     */
+    static PaletteProbe of(Collection<Material> materials, BlockData[] rules) {
+        List<BlockData> all = new ArrayList<>();
+        for (Material material : materials) {
+            if (!material.isBlock() || material.isAir()) continue;
+            List<BlockData> states = enumerate(material);
+            if (states == null || all.size() + states.size() > MAX_STATES) {
+                Debug.info("Palette probe disabled: cannot enumerate states of " + material);
+                return new PaletteProbe(null);
+            }
+            all.addAll(states);
+        }
+        for (BlockData rule : rules) {
+            List<BlockData> states = enumerate(rule.getMaterial());
+            if (states == null || all.size() + states.size() > MAX_STATES) {
+                Debug.info("Palette probe disabled: cannot enumerate states of " + rule.getAsString());
+                return new PaletteProbe(null);
+            }
+            for (BlockData state : states) {
+                if (rule.matches(state)) all.add(state);
+            }
+        }
+        Debug.info("Palette probe built with {} block states", all.size());
+        return new PaletteProbe(all.toArray(new BlockData[0]));
+    }
+
+    /**
+     * @return whether chunk skipping is available for the current contraband list
+     */
+    boolean isEnabled() {
+        return states != null;
+    }
+
+    /**
+     * Checks whether a chunk may contain a contraband block.
+     *
+     * @param palette a palette lookup such as {@code chunk::contains} or {@code snapshot::contains}
+     * @return false only if the chunk certainly contains no contraband block
+     */
+    boolean mayContain(Predicate<BlockData> palette) {
+        if (states == null) return true;
+        for (BlockData state : states) {
+            if (palette.test(state)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Lists every state of a block material by expanding the properties shown
+     * in its default state string. Returns null if a property has values this
+     * method does not know how to enumerate.
+     */
+    private static List<BlockData> enumerate(Material material) {
+        BlockData base = material.createBlockData();
+        String text = base.getAsString();
+        int open = text.indexOf('[');
+        List<String> combos = new ArrayList<>();
+        combos.add("");
+        if (open >= 0) {
+            String body = text.substring(open + 1, text.length() - 1);
+            for (String property : body.split(",")) {
+                String name = property.substring(0, property.indexOf('='));
+                List<String> values = propertyValues(material, base, name);
+                if (values == null || values.isEmpty()) return null;
+                List<String> next = new ArrayList<>(combos.size() * values.size());
+                for (String combo : combos) {
+                    for (String value : values) {
+                        next.add(combo.isEmpty() ? name + "=" + value : combo + "," + name + "=" + value);
+                    }
+                }
+                if (next.size() > MAX_STATES) return null;
+                combos = next;
+            }
+        }
+        List<BlockData> states = new ArrayList<>(combos.size());
+        for (String combo : combos) {
+            states.add(combo.isEmpty() ? base : Bukkit.createBlockData(material, "[" + combo + "]"));
+        }
+        return states;
+    }
+
+    private static List<String> propertyValues(Material material, BlockData base, String name) {
+        if (name.equals("leaves") && base instanceof Bamboo) {
+            List<String> values = new ArrayList<>();
+            for (Bamboo.Leaves leaves : Bamboo.Leaves.values()) {
+                values.add(leaves.name().toLowerCase(Locale.ROOT));
+            }
+            return values;
+        }
+        if (name.equals("facing") && base instanceof Directional directional) {
+            List<String> values = new ArrayList<>();
+            for (BlockFace face : directional.getFaces()) {
+                values.add(face.name().toLowerCase(Locale.ROOT));
+            }
+            return values;
+        }
+        if (parses(material, name, "true") && parses(material, name, "false")) {
+            return List.of("true", "false");
+        }
+        // Numeric properties such as age, stage or level
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i <= MAX_INT_VALUE; i++) {
+            if (parses(material, name, Integer.toString(i))) {
+                values.add(Integer.toString(i));
+            }
+        }
+        return values.isEmpty() ? null : values;
+    }
+
+    private static boolean parses(Material material, String name, String value) {
+        try {
+            Bukkit.createBlockData(material, "[" + name + "=" + value + "]");
+            return true;
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+}
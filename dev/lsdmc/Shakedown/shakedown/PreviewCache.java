@@ -0,0 +1,92 @@
+package dev.lsdmc.Shakedown.shakedown;
+
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.bukkit.World;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Scan results of {@code /shakedown preview}, kept for a short time so a
+ * following {@code /shakedown confirm} can apply them without scanning
+ * again. Entries are keyed by region, together with the fingerprint the
+ * region had when it was scanned; each guard confirms the last region they
+ * previewed. Main thread only.
+ */
+final class PreviewCache {
+    /**
+     * A previewed scan.
+     *
+     * @param fingerprint the {@link RegionFingerprint} at scan time
+     */
+    record Preview(UUID prisoner, World world, ProtectedRegion region, ScanResult result, long fingerprint,
+                   long expiresAt) {
+    }
+
+    private final Map<String, Preview> byRegion = new HashMap<>();
+    private final Map<UUID, String> lastByGuard = new HashMap<>();
+    private long ttlMillis;
+
+    PreviewCache(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    /**
+     * Changes the time to live and drops every cached preview, since they
+     * were matched against the previous contraband definitions.
+     */
+    void reset(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        byRegion.clear();
+        lastByGuard.clear();
+    }
+
+    /**
+     * Caches a preview, replacing any earlier one of the same region.
+     */
+    Preview put(UUID guard, UUID prisoner, World world, ProtectedRegion region, ScanResult result, long fingerprint) {
+        long now = System.currentTimeMillis();
+        // Expired entries are only swept here, the cache stays small
+        byRegion.values().removeIf(preview -> preview.expiresAt() <= now);
+        Preview preview = new Preview(prisoner, world, region, result, fingerprint, now + ttlMillis);
+        String key = key(world, region);
+        byRegion.put(key, preview);
+        lastByGuard.put(guard, key);
+        return preview;
+    }
+
+    /**
+     * Removes and returns the last region the guard previewed, or null if
+     * there is none or it expired.
+     */
+    Preview take(UUID guard) {
+        String key = lastByGuard.remove(guard);
+        if (key == null) return null;
+        Preview preview = byRegion.remove(key);
+        if (preview == null || preview.expiresAt() <= System.currentTimeMillis()) return null;
+        // Other guards who previewed the same region cannot confirm it twice
+        Iterator<String> keys = lastByGuard.values().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().equals(key)) keys.remove();
+        }
+        return preview;
+    }
+
+    /**
+     * Drops the preview of a region, e.g. after it was shaken down.
+     */
+    void invalidate(World world, ProtectedRegion region) {
+        byRegion.remove(key(world, region));
+    }
+
+    private static String key(World world, ProtectedRegion region) {
+        return world.getName() + ':' + region.getId().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,51 @@
+package dev.lsdmc.Shakedown.shakedown;
+
+import dev.lsdmc.Shakedown.util.RegionShape;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Container;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Cheap change fingerprint of a region, used to tell whether a previewed
+ * scan result still applies. It covers the tile entities inside the region
+ * per chunk and the contents of every container, which is where most
+ * contraband moves between a preview and its confirmation. Blocks are only
+ * covered through the {@link ContrabandIndex} change version; while the
+ * index does not track the region, confirming re-checks the blocks.
+ */
+final class RegionFingerprint {
+    private RegionFingerprint() {}
+
+    /**
+     * Computes the fingerprint. Must run on the main thread; the cost grows
+     * with the tile entities and container items in the region, not its
+     * volume.
+     *
+     * @param blockVersion the region's {@link ContrabandIndex#changeVersion}
+     */
+    static long of(RegionShape shape, long blockVersion) {
+        World world = shape.getWorld();
+        long hash = mix(1, blockVersion);
+        for (RegionShape.ChunkColumns columns : shape.getChunks()) {
+            Chunk chunk = world.getChunkAt(columns.getChunkX(), columns.getChunkZ());
+            Collection<BlockState> states = chunk.getTileEntities(
+                    block -> shape.getRegion().contains(block.getX(), block.getY(), block.getZ()), false);
+            hash = mix(hash, ((long) columns.getChunkX() << 32) | (columns.getChunkZ() & 0xFFFFFFFFL));
+            hash = mix(hash, states.size());
+            for (BlockState state : states) {
+                if (!(state instanceof Container container)) continue;
+                hash = mix(hash, ScanResult.pack(state.getX(), state.getY(), state.getZ()));
+                hash = mix(hash, Arrays.hashCode(container.getInventory().getContents()));
+            }
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * 0x100000001B3L + 31;
+    }
+}
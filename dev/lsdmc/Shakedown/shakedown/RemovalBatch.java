@@ -0,0 +1,104 @@
+package dev.lsdmc.Shakedown.shakedown;
+
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.Container;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies the removals of a scan result in one pass. Blocks are grouped by
+ * chunk, so each chunk is looked up once, and cleared without physics, so
+ * a field of sugar cane does not trigger a neighbour update per block.
+ * Every container is read once, cleaned in a copy of its contents and
+ * written back with a single contents update. Everything is re-checked
+ * first, since the region may have changed since the scan. Main thread only.
+ */
+final class RemovalBatch {
+    private RemovalBatch() {}
+
+    /**
+     * @param removedBlocks receives the count of removed blocks per type
+     * @return the contraband items taken out of containers
+     */
+    static List<ItemStack> apply(ScanResult result, ContrabandMatcher matcher, int nestedMaxDepth,
+                                 Map<Material, Integer> removedBlocks) {
+        removeBlocks(result, matcher, removedBlocks);
+        return cleanContainers(result, matcher, nestedMaxDepth);
+    }
+
+    private static void removeBlocks(ScanResult result, ContrabandMatcher matcher,
+                                     Map<Material, Integer> removedBlocks) {
+        int count = result.getBlockCount();
+        if (count == 0) return;
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = chunkKey(result.getPackedBlock(i));
+        }
+        Arrays.sort(keys);
+        World world = result.getWorld();
+        Chunk chunk = null;
+        for (long key : keys) {
+            int chunkX = (int) (key >> 42);
+            int chunkZ = (int) (key << 22 >> 42);
+            if (chunk == null || chunk.getX() != chunkX || chunk.getZ() != chunkZ) {
+                chunk = world.getChunkAt(chunkX, chunkZ);
+            }
+            Block block = chunk.getBlock((int) (key >> 16) & 15, (int) (key << 52 >> 52), (int) (key >> 12) & 15);
+            if (matcher.isContrabandBlock(block)) {
+                removedBlocks.merge(block.getType(), 1, Integer::sum);
+                block.setType(Material.AIR, false);
+            }
+        }
+    }
+
+    /**
+     * Re-packs a block position so that sorting groups it by chunk: 22 bits
+     * chunk x, 22 bits chunk z, 4 bits local x, 4 bits local z, 12 bits y.
+     */
+    private static long chunkKey(long packed) {
+        int x = ScanResult.unpackX(packed);
+        int z = ScanResult.unpackZ(packed);
+        return ((long) ((x >> 4) & 0x3FFFFF) << 42) | ((long) ((z >> 4) & 0x3FFFFF) << 20)
+                | ((long) (x & 15) << 16) | ((long) (z & 15) << 12) | (ScanResult.unpackY(packed) & 0xFFF);
+    }
+
+    private static List<ItemStack> cleanContainers(ScanResult result, ContrabandMatcher matcher, int nestedMaxDepth) {
+        List<ItemStack> found = new ArrayList<>();
+        List<ScanResult.ContainerHit> hits = new ArrayList<>(result.getContainerHits());
+        hits.sort(Comparator.comparingInt((ScanResult.ContainerHit hit) -> hit.block().getX() >> 4)
+                .thenComparingInt(hit -> hit.block().getZ() >> 4));
+        for (ScanResult.ContainerHit hit : hits) {
+            // Not a snapshot, so the inventory is the live one
+            if (!(hit.block().getState(false) instanceof Container container)) continue;
+            Inventory inv = container.getInventory();
+            ItemStack[] contents = inv.getContents();
+            boolean changed = false;
+            for (int slot : hit.slots()) {
+                ItemStack item = slot < contents.length ? contents[slot] : null;
+                if (matcher.isContraband(item)) {
+                    found.add(item.clone());
+                    contents[slot] = null;
+                    changed = true;
+                }
+            }
+            for (int slot : hit.nestedSlots()) {
+                if (slot < contents.length
+                        && NestedContainerScanner.strip(contents[slot], matcher, nestedMaxDepth, found)) {
+                    changed = true;
+                }
+            }
+            // Halves of a double chest share an inventory; the second hit re-reads what the first wrote
+            if (changed) inv.setContents(contents);
+        }
+        return found;
+    }
+}
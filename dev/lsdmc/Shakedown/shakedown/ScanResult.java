@@ -0,0 +1,205 @@
+package dev.lsdmc.Shakedown.shakedown;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.Container;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of scanning a region for contraband. Holds the positions of
+ * contraband blocks and the container slots holding contraband items, so the
+ * removals can be applied later on the main thread independently of how the
+ * scan itself was executed.
+ */
+public final class ScanResult {
+    private final World world;
+    private long[] blocks = new long[16];
+    private int blockCount;
+    private final List<ContainerHit> containerHits = new ArrayList<>();
+    // Containers whose nested items were not all opened, in pack layout
+    private final List<Long> truncatedContainers = new ArrayList<>();
+    private long blocksScanned;
+    private int containersVisited;
+    private long itemsInspected;
+    private long mainThreadNanos;
+
+    public ScanResult(World world) {
+        this.world = world;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * Records a contraband block at the given coordinates.
+     */
+    public void addBlock(int x, int y, int z) {
+        if (blockCount == blocks.length) {
+            blocks = Arrays.copyOf(blocks, blockCount * 2);
+        }
+        blocks[blockCount++] = pack(x, y, z);
+    }
+
+    /**
+     * Records contraband inside the container at the given block.
+     *
+     * @param block       the container block
+     * @param slots       the inventory slots holding contraband
+     * @param nestedSlots the slots holding shulker boxes or bundles with contraband inside
+     */
+    public void addContainerHit(Block block, int[] slots, int[] nestedSlots) {
+        containerHits.add(new ContainerHit(block, slots, nestedSlots));
+    }
+
+    /**
+     * Checks every slot of a container and records the slots holding
+     * contraband, either directly or nested inside another container item.
+     * A container whose nested items were cut off by the budget or depth
+     * limit is remembered as truncated. Must run on the main thread.
+     */
+    public void inspectContainer(Container container, ContrabandMatcher matcher, NestedContainerScanner nested) {
+        Inventory inv = container.getInventory();
+        int[] slots = new int[inv.getSize()];
+        int[] nestedSlots = new int[inv.getSize()];
+        int count = 0;
+        int nestedCount = 0;
+        long truncations = nested.truncations();
+        containersVisited++;
+        for (int slot = 0; slot < slots.length; slot++) {
+            ItemStack item = inv.getItem(slot);
+            if (item == null) continue;
+            itemsInspected++;
+            if (matcher.isContraband(item)) {
+                slots[count++] = slot;
+            } else if (nested.containsContraband(item)) {
+                nestedSlots[nestedCount++] = slot;
+            }
+        }
+        if (count > 0 || nestedCount > 0) {
+            addContainerHit(container.getBlock(), Arrays.copyOf(slots, count), Arrays.copyOf(nestedSlots, nestedCount));
+        }
+        if (nested.truncations() != truncations) {
+            truncatedContainers.add(pack(container.getX(), container.getY(), container.getZ()));
+        }
+    }
+
+    public void addBlocksScanned(long count) {
+        blocksScanned += count;
+    }
+
+    /**
+     * Adds time the scan spent on the main thread, for the per-run metrics.
+     */
+    public void addMainThreadNanos(long nanos) {
+        mainThreadNanos += nanos;
+    }
+
+    /**
+     * Merges another partial result (for example from a single chunk) into
+     * this one. Both results must belong to the same world.
+     */
+    public void merge(ScanResult other) {
+        for (int i = 0; i < other.blockCount; i++) {
+            if (blockCount == blocks.length) {
+                blocks = Arrays.copyOf(blocks, Math.max(16, blockCount * 2));
+            }
+            blocks[blockCount++] = other.blocks[i];
+        }
+        containerHits.addAll(other.containerHits);
+        truncatedContainers.addAll(other.truncatedContainers);
+        blocksScanned += other.blocksScanned;
+        containersVisited += other.containersVisited;
+        itemsInspected += other.itemsInspected;
+        mainThreadNanos += other.mainThreadNanos;
+    }
+
+    /**
+     * Adds the container hits and container counters of another result,
+     * leaving its blocks out.
+     */
+    void mergeContainers(ScanResult other) {
+        containerHits.addAll(other.containerHits);
+        truncatedContainers.addAll(other.truncatedContainers);
+        containersVisited += other.containersVisited;
+        itemsInspected += other.itemsInspected;
+    }
+
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    public Block getBlock(int index) {
+        long packed = blocks[index];
+        return world.getBlockAt(unpackX(packed), unpackY(packed), unpackZ(packed));
+    }
+
+    /**
+     * @return the position of a contraband block in {@link #pack} layout
+     */
+    long getPackedBlock(int index) {
+        return blocks[index];
+    }
+
+    public List<ContainerHit> getContainerHits() {
+        return Collections.unmodifiableList(containerHits);
+    }
+
+    /**
+     * @return the containers whose nested items were not all inspected, in
+     * {@link #pack} layout; they are not known to be clean
+     */
+    List<Long> getTruncatedContainers() {
+        return Collections.unmodifiableList(truncatedContainers);
+    }
+
+    public long getBlocksScanned() {
+        return blocksScanned;
+    }
+
+    public int getContainersVisited() {
+        return containersVisited;
+    }
+
+    public long getItemsInspected() {
+        return itemsInspected;
+    }
+
+    public long getMainThreadNanos() {
+        return mainThreadNanos;
+    }
+
+    public boolean isEmpty() {
+        return blockCount == 0 && containerHits.isEmpty();
+    }
+
+    // Same layout as vanilla BlockPos#asLong: 26 bits x, 26 bits z, 12 bits y
+    static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    static int unpackX(long packed) {
+        return (int) (packed >> 38);
+    }
+
+    static int unpackY(long packed) {
+        return (int) (packed << 52 >> 52);
+    }
+
+    static int unpackZ(long packed) {
+        return (int) (packed << 26 >> 38);
+    }
+
+    /**
+     * A container block together with the slots that held contraband at
+     * scan time, directly or nested. Slots are re-checked when the removal
+     * is applied.
+     */
+    public record ContainerHit(Block block, int[] slots, int[] nestedSlots) {}
+}
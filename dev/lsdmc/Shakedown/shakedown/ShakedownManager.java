@@ -1,7 +1,19 @@
 package dev.lsdmc.Shakedown.shakedown;
 
 import dev.lsdmc.Shakedown.config.ConfigManager;
+import dev.lsdmc.Shakedown.config.MessageTemplate;
+import dev.lsdmc.Shakedown.config.ScanMode;
+import dev.lsdmc.Shakedown.config.TemplateKey;
+import dev.lsdmc.Shakedown.config.TemplateValues;
 import dev.lsdmc.Shakedown.data.DataManager;
+import dev.lsdmc.Shakedown.data.HistoryQuery;
+import dev.lsdmc.Shakedown.data.HistoryStore;
+import dev.lsdmc.Shakedown.data.ShakedownRecord;
+import dev.lsdmc.Shakedown.metrics.Histogram;
+import dev.lsdmc.Shakedown.metrics.Metrics;
+import dev.lsdmc.Shakedown.metrics.PrometheusExporter;
+import dev.lsdmc.Shakedown.util.ArmRegionIndex;
+import dev.lsdmc.Shakedown.util.RegionShape;
 import dev.lsdmc.Shakedown.util.RegionUtils;
 import dev.lsdmc.Shakedown.util.Debug;
 import net.kyori.adventure.text.Component;
@@ -10,11 +22,14 @@ import net.kyori.adventure.title.Title;
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 // duplicate import removed
 import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.World;
-import org.bukkit.block.Block;
 import org.bukkit.block.Container;
+import org.bukkit.block.DoubleChest;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -23,6 +38,7 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
@@ -33,27 +49,59 @@ import org.jetbrains.annotations.Nullable;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 
 /**
  * Central class responsible for coordinating shakedown logic. Implements
  * {@link CommandExecutor} and {@link TabCompleter} to handle the `/shakedown`
- * command, and registers event listeners for cleanup tasks. The scanning
- * routines run on a separate virtual thread via a simple executor to keep
- * the server thread responsive.
+ * command, and registers event listeners for cleanup tasks. Regions are
+ * scanned in the configured mode: {@code sync} scans on the main thread in
+ * one tick, {@code snapshot} takes chunk snapshots and matches blocks on a
+ * worker pool, and {@code incremental} spreads the scan over ticks within a
+ * per-tick budget. Sweeps and automatic rounds use their own budgeted
+ * scanner. Removals are always applied on the main thread.
  */
 public class ShakedownManager implements CommandExecutor, TabCompleter, Listener {
+    private static final int HISTORY_PAGE_SIZE = 8;
+    private static final DateTimeFormatter HISTORY_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
+            .withZone(ZoneId.systemDefault());
     private final DataManager dataManager;
     private ConfigManager config;
-    private ContrabandChecker contrabandChecker;
+    private ContrabandMatcher contrabandMatcher;
     private final org.bukkit.plugin.Plugin plugin;
     // Track ongoing shakedowns by region ID to prevent concurrent runs
     private final List<String> activeShakedowns;
     private final MiniMessage mini;
+    private SnapshotScanner snapshotScanner;
+    private final IncrementalScanner incrementalScanner;
+    // Sweeps get their own scanner so their per-tick budget is shared by all sweep jobs only
+    private final IncrementalScanner sweepScanner;
+    private final JobScheduler sweepScheduler;
+    private final AutoShakedowns autoShakedowns;
+    private final PreviewCache previewCache;
+    private final ActionQueue actionQueue;
+    private final ContrabandIndex contrabandIndex;
+    private final PrometheusExporter metricsExporter;
+    private final ArmRegionIndex armRegionIndex;
+    private final ShakedownTabCompleter tabCompleter;
 
     public ShakedownManager(org.bukkit.plugin.Plugin plugin,
                             ConfigManager config,
@@ -61,15 +109,68 @@ public class ShakedownManager implements CommandExecutor, TabCompleter, Listener
         this.plugin = plugin;
         this.config = config;
         this.dataManager = dataManager;
-        this.contrabandChecker = new ContrabandChecker(config);
+        this.contrabandMatcher = new ContrabandMatcher(config);
         this.mini = MiniMessage.miniMessage();
         this.activeShakedowns = Collections.synchronizedList(new ArrayList<>());
+        this.snapshotScanner = new SnapshotScanner(plugin, config.getScanThreads());
+        this.incrementalScanner = new IncrementalScanner(plugin, config.getScanBudgetMillis(), config.getScanBudgetBlocks());
+        this.sweepScanner = new IncrementalScanner(plugin, config.getSweepBudgetMillis(), config.getSweepBudgetBlocks());
+        this.sweepScheduler = new JobScheduler(config.getSweepMaxConcurrent());
+        this.contrabandIndex = new ContrabandIndex(contrabandMatcher, config.isIndexEnabled(), config.getIndexMaxAge(),
+                config.getIndexMaxPositions());
+        this.metricsExporter = new PrometheusExporter(plugin);
+        metricsExporter.start(config.getMetricsFile(), config.getMetricsExportInterval());
+        this.armRegionIndex = new ArmRegionIndex(plugin);
+        armRegionIndex.start(config.isArmIndexEnabled(), config.getArmIndexRebuildInterval());
+        this.tabCompleter = new ShakedownTabCompleter(plugin, armRegionIndex);
+        this.previewCache = new PreviewCache(config.getPreviewTtl().toMillis());
+        this.actionQueue = new ActionQueue(plugin);
+        actionQueue.configure(config.getActionBudgetMillis(), config.getActionMaxPerTick(), config.getActionAttempts(),
+                config.getActionRetryDelay());
+        this.autoShakedowns = new AutoShakedowns(plugin, dataManager, this::runAutoShakedowns);
+        autoShakedowns.start(config.isAutoEnabled(), config.getAutoInterval(), config.getAutoPerRun(),
+                config.getCooldown());
+    }
+
+    /**
+     * @return the event-maintained contraband index, registered as a listener by the plugin
+     */
+    public ContrabandIndex getContrabandIndex() {
+        return contrabandIndex;
+    }
+
+    /**
+     * @return the async tab completer, registered as a listener by the plugin
+     */
+    public ShakedownTabCompleter getTabCompleter() {
+        return tabCompleter;
+    }
+
+    /**
+     * Releases resources held by the manager. Called when the plugin is
+     * disabled.
+     */
+    public void shutdown() {
+        snapshotScanner.shutdown();
+        incrementalScanner.shutdown();
+        autoShakedowns.stop();
+        actionQueue.stop();
+        sweepScheduler.clear();
+        sweepScanner.shutdown();
+        metricsExporter.stop();
+        armRegionIndex.stop();
     }
 
     /**
      * Handles execution of the /shakedown command. Supported usages:
      * `/shakedown <regionId>` - runs a shakedown on the specified region.
-     * `/shakedown <player>` - runs a shakedown on the first region owned by the player.
+     * `/shakedown <player>` - runs one shakedown over every region the player owns, rents or is a member of.
+     * `/shakedown preview <regionId|player>` - scans without removing anything.
+     * `/shakedown confirm` - applies the last preview.
+     * `/shakedown history <player|region> [page]` - lists past shakedowns.
+     * `/shakedown stats` - shows timings and totals since startup.
+     * `/shakedown reindex` - rebuilds the ARM region index.
+     * `/shakedown sweep <regex|world|parent-region>` - searches every matching ARM region.
      */
     @Override
     public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label,
@@ -81,11 +182,47 @@ public class ShakedownManager implements CommandExecutor, TabCompleter, Listener
             }
             plugin.reloadConfig();
             this.config = new ConfigManager(plugin);
-            this.contrabandChecker = new ContrabandChecker(this.config);
-            Debug.info("Reload complete: cooldown=" + config.getCooldown() + ", group=" + config.getGuardGroup());
+            this.contrabandMatcher = new ContrabandMatcher(this.config);
+            dataManager.setCooldown(config.getCooldown());
+            previewCache.reset(config.getPreviewTtl().toMillis());
+            actionQueue.configure(config.getActionBudgetMillis(), config.getActionMaxPerTick(),
+                    config.getActionAttempts(), config.getActionRetryDelay());
+            // Running snapshot scans keep their old pool until they finish
+            snapshotScanner.shutdown();
+            this.snapshotScanner = new SnapshotScanner(plugin, config.getScanThreads());
+            incrementalScanner.setBudget(config.getScanBudgetMillis(), config.getScanBudgetBlocks());
+            sweepScanner.setBudget(config.getSweepBudgetMillis(), config.getSweepBudgetBlocks());
+            sweepScheduler.setMaxConcurrent(config.getSweepMaxConcurrent());
+            contrabandIndex.configure(contrabandMatcher, config.isIndexEnabled(), config.getIndexMaxAge(),
+                    config.getIndexMaxPositions());
+            Debug.configure(config, plugin.getLogger());
+            metricsExporter.start(config.getMetricsFile(), config.getMetricsExportInterval());
+            armRegionIndex.start(config.isArmIndexEnabled(), config.getArmIndexRebuildInterval());
+            autoShakedowns.start(config.isAutoEnabled(), config.getAutoInterval(), config.getAutoPerRun(),
+                    config.getCooldown());
+            Debug.info("Reload complete: cooldown=" + config.getCooldown() + ", group=" + config.getGuardGroup()
+                    + ", scanMode=" + config.getScanMode());
             sender.sendMessage(mini.deserialize("<#51CF66>Config reloaded.</#51CF66>"));
             return true;
         }
+        if (args.length >= 1 && args[0].equalsIgnoreCase("history")) {
+            return showHistory(sender, args);
+        }
+        if (args.length >= 1 && args[0].equalsIgnoreCase("stats")) {
+            return showStats(sender);
+        }
+        if (args.length >= 1 && args[0].equalsIgnoreCase("reindex")) {
+            return rebuildArmIndex(sender);
+        }
+        if (args.length >= 1 && args[0].equalsIgnoreCase("sweep")) {
+            return startSweep(sender, args);
+        }
+        if (args.length >= 1 && args[0].equalsIgnoreCase("preview")) {
+            return startPreview(sender, args);
+        }
+        if (args.length >= 1 && args[0].equalsIgnoreCase("confirm")) {
+            return confirmPreview(sender);
+        }
         if (!(sender instanceof Player guard)) {
             sender.sendMessage(mini.deserialize("<red>Only players can execute shakedowns.</red>"));
             return true;
@@ -95,50 +232,110 @@ public class ShakedownManager implements CommandExecutor, TabCompleter, Listener
             return true;
         }
         if (args.length < 1) {
-            guard.sendMessage(mini.deserialize("<red>Usage: /shakedown <regionId|player|reload></red>"));
+            guard.sendMessage(mini.deserialize("<red>Usage: /shakedown <regionId|player|preview|confirm|history|sweep|reload></red>"));
             return true;
         }
         String targetArg = args[0];
+        Debug.info("/shakedown invoked by={}, arg0={}", sender.getName(), targetArg);
+        long resolveStart = System.nanoTime();
+        Target target = resolveTarget(guard, targetArg);
+        long resolveNanos = Metrics.record(Metrics.Phase.RESOLVE, resolveStart);
+        if (target == null) {
+            return true;
+        }
+        Player prisoner = target.prisoner();
+        // The cooldown may have to be read from storage first
+        dataManager.getLastShakedown(prisoner.getUniqueId().toString()).whenComplete((last, ex) -> {
+            if (ex != null) {
+                Debug.error("Cooldown lookup failed: " + ex.getMessage(), ex);
+                guard.sendMessage(mini.deserialize("<red>Could not look up the cooldown. Try again.</red>"));
+                return;
+            }
+            if (guard.isOnline() && prisoner.isOnline()) {
+                startShakedown(guard, prisoner, target.cells(), last, resolveNanos, null);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Resolves a shakedown target: a player name selects every ARM region
+     * that player owns, rents or is a member of, anything else is taken as
+     * an ARM region ID whose primary user must be online. The guard is told
+     * why when that fails.
+     *
+     * @return the target, or null if it could not be resolved
+     */
+    @Nullable
+    private Target resolveTarget(Player guard, String targetArg) {
         // Determine whether the argument is a player name or a region ID
-        Debug.info("/shakedown invoked by=" + sender.getName() + ", arg0=" + targetArg);
         Player prisoner = Bukkit.getPlayerExact(targetArg);
-        ProtectedRegion region = null;
+        List<Cell> cells;
         if (prisoner != null) {
-            // Find a region owned by the player via ARM or fallback to name match
-            String regionId = findRegionOwnedBy(prisoner.getUniqueId());
-            if (regionId == null) {
-                Debug.warn("No ARM region found for player=" + prisoner.getName() + " (" + prisoner.getUniqueId() + ")");
+            // All regions of the player are searched together
+            cells = findCellsOf(prisoner.getUniqueId());
+            if (cells.isEmpty()) {
+                Debug.warn("No ARM region found for player={} ({})", prisoner.getName(), prisoner.getUniqueId());
                 guard.sendMessage(mini.deserialize("<red>No ARM region owned by that player.</red>"));
-                return true;
+                return null;
             }
-            Debug.info("Resolved player region id=" + regionId);
-            region = RegionUtils.findWorldGuardRegionByIdAnyWorld(regionId).orElse(null);
+            Debug.info("Resolved player regions {}", regionLabel(cells));
         } else {
-            // treat as region id; get region in guard’s world
-            region = RegionUtils.findWorldGuardRegionByIdAnyWorld(targetArg).orElse(null);
+            // treat as region id, looked up in the world ARM has it in
+            Cell cell = findCell(targetArg);
+            cells = cell == null ? List.of() : List.of(cell);
             // Require region to be ARM-managed and resolve primary user (owner/renter)
             java.util.Optional<java.util.UUID> ownerOpt = RegionUtils.getRegionPrimaryUser(targetArg);
             if (ownerOpt.isEmpty()) {
-                Debug.warn("Region not ARM-managed or has no primary user: id=" + targetArg);
+                Debug.warn("Region not ARM-managed or has no primary user: id={}", targetArg);
                 guard.sendMessage(mini.deserialize("<red>That region is not managed by ARM or has no owner.</red>"));
-                return true;
+                return null;
             }
             Player ownerOnline = Bukkit.getPlayer(ownerOpt.get());
             if (ownerOnline == null) {
-                Debug.warn("Region owner/renter offline for region=" + targetArg + ", owner=" + ownerOpt.get());
+                Debug.warn("Region owner/renter offline for region={}, owner={}", targetArg, ownerOpt.get());
                 guard.sendMessage(mini.deserialize("<red>The region owner must be online for a shakedown.</red>"));
-                return true;
+                return null;
             }
-            Debug.info("Resolved region to player=" + ownerOnline.getName() + " (" + ownerOnline.getUniqueId() + ")");
+            Debug.info("Resolved region to player={} ({})", ownerOnline.getName(), ownerOnline.getUniqueId());
             prisoner = ownerOnline;
         }
-        if (region == null || prisoner == null) {
-            Debug.warn("Failed to resolve region or prisoner. region=" + (region == null ? "null" : region.getId()) + ", prisoner=" + (prisoner == null ? "null" : prisoner.getName()));
+        if (cells.isEmpty() || prisoner == null) {
+            Debug.warn("Failed to resolve region or prisoner. target={}, prisoner={}", targetArg,
+                    prisoner == null ? "null" : prisoner.getName());
             guard.sendMessage(mini.deserialize("<red>Unable to locate region or prisoner.</red>"));
-            return true;
+            return null;
         }
+        return new Target(prisoner, cells);
+    }
+
+    /**
+     * A resolved shakedown target: the prisoner and the regions to search,
+     * primary region first.
+     */
+    private record Target(Player prisoner, List<Cell> cells) {
+    }
+
+    /**
+     * A region to search, with the world it is in.
+     */
+    private record Cell(World world, ProtectedRegion region) {
+    }
+
+    /**
+     * Checks the cooldown and concurrent runs, then announces and starts the
+     * scans in the configured mode. The regions are searched as one job:
+     * their scans run side by side, sharing the scanner's budget, and the
+     * removals are applied together once every scan is done. Must run on
+     * the main thread.
+     *
+     * @param last         epoch second of the prisoner's last shakedown, or -1
+     * @param resolveNanos main thread time spent resolving the target
+     * @param previewed    a confirmed preview of the only region to apply instead of scanning, or null
+     */
+    private void startShakedown(Player guard, Player prisoner, List<Cell> cells, long last, long resolveNanos,
+                                @Nullable ScanResult previewed) {
         // Check cooldown – keyed by prisoner UUID; if staff has admin permission they can bypass
-        long last = dataManager.getLastShakedown(prisoner.getUniqueId().toString());
         Duration cooldown = config.getCooldown();
         long now = Instant.now().getEpochSecond();
         if (!guard.hasPermission("shakedown.admin") && last > 0) {
@@ -147,134 +344,827 @@ public class ShakedownManager implements CommandExecutor, TabCompleter, Listener
                 long remaining = cooldown.toSeconds() - diffSeconds;
                 long hrs = remaining / 3600;
                 long mins = (remaining % 3600) / 60;
-                Debug.info("Cooldown active for prisoner=" + prisoner.getUniqueId() + ", remaining=" + remaining + "s");
+                Debug.info("Cooldown active for prisoner={}, remaining={}s", prisoner.getUniqueId(), remaining);
                 guard.sendMessage(mini.deserialize("<red>This player has been shaken down recently. Try again in <white>" + hrs + "h " + mins + "m</white>.</red>"));
-                return true;
+                return;
             }
         }
         // Prevent concurrent shakedowns for same region
-        if (activeShakedowns.contains(region.getId())) {
+        if (isActive(cells)) {
             guard.sendMessage(mini.deserialize("<red>A shakedown is already in progress for this region.</red>"));
-            return true;
+            return;
+        }
+        for (Cell cell : cells) {
+            activeShakedowns.add(cell.region().getId());
         }
-        activeShakedowns.add(region.getId());
-        Player finalPrisoner = prisoner;
-        ProtectedRegion finalRegion = region;
+        RunTimings run = new RunTimings(resolveNanos);
         // Announce the shakedown using Adventure
-        broadcastShakedownStart(guard, finalPrisoner, finalRegion);
+        broadcastShakedownStart(guard, prisoner, cells);
+        Debug.info("Starting shakedown in regions={} for prisoner={}, mode={}", regionLabel(cells), prisoner.getName(),
+                config.getScanMode());
+        List<CompletableFuture<ScanResult>> scans = new ArrayList<>(cells.size());
+        for (Cell cell : cells) {
+            scans.add(scanCell(cell, previewed, c -> fullScan(c, guard)));
+        }
+        CompletableFuture.allOf(scans.toArray(new CompletableFuture[0])).whenComplete((ignored, ex) -> {
+            try {
+                if (ex != null) {
+                    reportFailure(guard, cells, unwrap(ex));
+                } else {
+                    completeShakedown(Guard.of(guard), prisoner, cells, joinAll(scans), run, false);
+                }
+            } catch (Throwable t) {
+                reportFailure(guard, cells, t);
+            } finally {
+                for (Cell cell : cells) {
+                    finishShakedown(cell.region());
+                }
+            }
+        });
+    }
+
+    /**
+     * Starts the scan of one region. A confirmed preview is applied as
+     * scanned and a warm index only needs its recorded positions re-checked;
+     * anything else gets a full scan.
+     *
+     * @return a future completed on the main thread
+     */
+    private CompletableFuture<ScanResult> scanCell(Cell cell, @Nullable ScanResult previewed,
+                                                   Function<Cell, CompletableFuture<ScanResult>> fullScan) {
+        if (previewed != null) {
+            return CompletableFuture.completedFuture(previewed);
+        }
+        try {
+            ScanResult indexed = contrabandIndex.scanIndexed(cell.world(), cell.region(), newNestedScanner());
+            if (indexed != null) {
+                return CompletableFuture.completedFuture(indexed);
+            }
+        } catch (Throwable ex) {
+            contrabandIndex.invalidate(cell.world(), cell.region());
+            Debug.error("Indexed scan failed, falling back to full scan: " + ex.getMessage(), ex);
+        }
+        try {
+            contrabandIndex.beginFullScan(cell.world(), cell.region());
+            return fullScan.apply(cell);
+        } catch (Throwable ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Scans a region in the configured mode. Synchronous scans run on the
+     * next tick, so all regions of a job are searched in the same one.
+     */
+    private CompletableFuture<ScanResult> fullScan(Cell cell, Player guard) {
+        if (config.getScanMode() == ScanMode.SNAPSHOT) {
+            return snapshotScanner.scan(cell.world(), cell.region(), contrabandMatcher, newNestedScanner());
+        }
+        if (config.getScanMode() == ScanMode.INCREMENTAL) {
+            return incrementalScanner.scan(cell.world(), cell.region(), contrabandMatcher, newNestedScanner(), guard);
+        }
         // Run search synchronously on the main thread
+        CompletableFuture<ScanResult> scan = new CompletableFuture<>();
         Bukkit.getScheduler().runTask(plugin, () -> {
             try {
-                Debug.info("Starting shakedown in region=" + finalRegion.getId() + " for prisoner=" + finalPrisoner.getName());
-                performShakedown(guard, finalPrisoner, finalRegion);
+                scan.complete(performShakedown(cell.world(), cell.region()));
             } catch (Throwable ex) {
-                guard.sendMessage(mini.deserialize("<red>An error occurred during the shakedown: <white>" + ex.getMessage() + "</white></red>"));
-                Debug.error("Exception during shakedown: " + ex.getMessage(), ex);
-                ex.printStackTrace();
-            } finally {
-                activeShakedowns.remove(finalRegion.getId());
-                // Ensure group cleanup even on error
-                try { RegionUtils.removeGroupFromRegion(finalRegion, config.getGuardGroup()); } catch (Throwable ignored) {}
-                Debug.info("Shakedown finished for region=" + finalRegion.getId());
+                scan.completeExceptionally(ex);
             }
         });
-        return true;
+        return scan;
+    }
+
+    private static List<ScanResult> joinAll(List<CompletableFuture<ScanResult>> scans) {
+        List<ScanResult> results = new ArrayList<>(scans.size());
+        for (CompletableFuture<ScanResult> scan : scans) {
+            results.add(scan.join());
+        }
+        return results;
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
+    private boolean isActive(List<Cell> cells) {
+        for (Cell cell : cells) {
+            if (activeShakedowns.contains(cell.region().getId())) return true;
+        }
+        return false;
+    }
+
+    private void reportFailure(Player guard, List<Cell> cells, Throwable ex) {
+        // The index can no longer be trusted for a region whose shakedown failed
+        for (Cell cell : cells) {
+            contrabandIndex.invalidate(cell.world(), cell.region());
+        }
+        guard.sendMessage(mini.deserialize("<red>An error occurred during the shakedown: <white>" + ex.getMessage() + "</white></red>"));
+        Debug.error("Exception during shakedown: " + ex.getMessage(), ex);
+    }
+
+    private void finishShakedown(ProtectedRegion region) {
+        activeShakedowns.remove(region.getId());
+        // Ensure group cleanup even on error
+        try { RegionUtils.removeGroupFromRegion(region, config.getGuardGroup()); } catch (Throwable ignored) {}
+        Debug.info("Shakedown finished for region={}", region.getId());
     }
 
     /**
-     * Performs the shakedown by scanning every block inside the region and
-     * collecting tasks to remove contraband on the main thread. At the end of
-     * the scan the removal tasks are executed synchronously and the guard is
-     * rewarded or the prisoner punished accordingly.
+     * Applies the removals of the finished scans, records the run in the
+     * history and then rewards the guard or punishes the prisoner
+     * accordingly. Every region gets its own history entry; the cooldown,
+     * messages and actions happen once for the whole job. Must run on the
+     * main thread.
+     *
+     * @param results the scan of each region, in the order of {@code cells}
+     * @param quiet   true to leave out the result message to the guard, e.g. when a sweep reports in bulk
+     * @return the confiscated amount per type of each region, blocks and items together, in the order of {@code cells}
      */
-    private void performShakedown(Player guard, Player prisoner, ProtectedRegion region) {
-        World world = prisoner.getWorld();
-        int minX = region.getMinimumPoint().getBlockX();
-        int minY = region.getMinimumPoint().getBlockY();
-        int minZ = region.getMinimumPoint().getBlockZ();
-        int maxX = region.getMaximumPoint().getBlockX();
-        int maxY = region.getMaximumPoint().getBlockY();
-        int maxZ = region.getMaximumPoint().getBlockZ();
-
-        List<Runnable> removalTasks = new ArrayList<>();
+    private List<Map<Material, Integer>> completeShakedown(Guard guard, Player prisoner, List<Cell> cells,
+                                                     List<ScanResult> results, RunTimings run, boolean quiet) {
+        long scanNanos = Metrics.record(Metrics.Phase.SCAN, run.scanStart);
+        long start = System.nanoTime();
         List<ItemStack> foundContraband = new ArrayList<>();
+        List<Map<Material, Integer>> regionCounts = new ArrayList<>(cells.size());
+        Map<Material, Integer> counts = new EnumMap<>(Material.class);
+        long blocksScanned = 0;
+        long containersVisited = 0;
+        long itemsInspected = 0;
+        for (int i = 0; i < cells.size(); i++) {
+            ProtectedRegion region = cells.get(i).region();
+            ScanResult result = results.get(i);
+            run.mainThreadNanos += result.getMainThreadNanos();
+            Debug.info("Scan complete for region={}: blocks={}, contrabandBlocks={}, containers={}", region.getId(),
+                    result.getBlocksScanned(), result.getBlockCount(), result.getContainerHits().size());
+            Map<Material, Integer> removed = new EnumMap<>(Material.class);
+            List<ItemStack> found = applyRemovals(result, removed);
+            contrabandIndex.completeScan(cells.get(i).world(), region, result);
+            previewCache.invalidate(result.getWorld(), region);
+            for (ItemStack item : found) {
+                removed.merge(item.getType(), item.getAmount(), Integer::sum);
+            }
+            removed.forEach((material, count) -> counts.merge(material, count, Integer::sum));
+            foundContraband.addAll(found);
+            regionCounts.add(removed);
+            blocksScanned += result.getBlocksScanned();
+            containersVisited += result.getContainersVisited();
+            itemsInspected += result.getItemsInspected();
+        }
+        run.mainThreadNanos += Metrics.record(Metrics.Phase.APPLY, start);
 
-        for (int x = minX; x <= maxX; x++) {
-            for (int y = minY; y <= maxY; y++) {
-                for (int z = minZ; z <= maxZ; z++) {
-                    Location loc = new Location(world, x, y, z);
-                    Block block = world.getBlockAt(loc);
-                    Material type = block.getType();
-                    // Remove contraband crops (e.g., sugar cane, bamboo, etc.)
-                    if (contrabandChecker.isContraband(new ItemStack(type))) {
-                        removalTasks.add(() -> block.setType(Material.AIR));
-                    }
-                    // Check chests and other containers for contraband items
-                    if (block.getState() instanceof Container container) {
-                        Inventory inv = container.getInventory();
-                        for (int slot = 0; slot < inv.getSize(); slot++) {
-                            ItemStack item = inv.getItem(slot);
-                            if (contrabandChecker.isContraband(item)) {
-                                // capture for removal
-                                int index = slot;
-                                removalTasks.add(() -> {
-                                    ItemStack removed = inv.getItem(index);
-                                    if (removed != null) {
-                                        foundContraband.add(removed.clone());
-                                        inv.setItem(index, null);
-                                    }
-                                });
-                            }
-                        }
-                    }
-                }
+        // Storage writes and actions only get queued here; their phases are timed where they run
+        start = System.nanoTime();
+        dataManager.recordShakedown(prisoner.getUniqueId().toString());
+        autoShakedowns.recorded(prisoner.getUniqueId(), Instant.now().getEpochSecond());
+        for (int i = 0; i < cells.size(); i++) {
+            recordHistory(guard, prisoner, cells.get(i).region(), results.get(i), run.startedAt, regionCounts.get(i));
+        }
+        postShakedown(guard, prisoner, cells, foundContraband, counts, run, quiet);
+        run.mainThreadNanos += System.nanoTime() - start;
+        Metrics.recordRun(run.mainThreadNanos, scanNanos, blocksScanned, containersVisited, itemsInspected);
+        return regionCounts;
+    }
+
+    private void recordHistory(Guard guard, Player prisoner, ProtectedRegion region, ScanResult result,
+                               long startedAt, Map<Material, Integer> counts) {
+        Map<String, Integer> contraband = new LinkedHashMap<>();
+        counts.forEach((material, count) -> contraband.put(material.name(), count));
+        dataManager.recordHistory(new ShakedownRecord(startedAt, System.currentTimeMillis(), guard.uuid(),
+                guard.name(), prisoner.getUniqueId(), prisoner.getName(), result.getWorld().getName(),
+                region.getId(), result.getBlocksScanned(), contraband));
+    }
+
+    /**
+     * Removes everything recorded in the scan result in one batch, see
+     * {@link RemovalBatch}.
+     *
+     * @param removedBlocks receives the count of removed blocks per type
+     * @return the contraband items taken out of containers
+     */
+    private List<ItemStack> applyRemovals(ScanResult result, Map<Material, Integer> removedBlocks) {
+        return RemovalBatch.apply(result, contrabandMatcher, config.getNestedMaxDepth(), removedBlocks);
+    }
+
+    private NestedContainerScanner newNestedScanner() {
+        return new NestedContainerScanner(contrabandMatcher, config.getNestedMaxDepth(), config.getNestedItemBudget());
+    }
+
+    /**
+     * Performs the shakedown scan by visiting every block inside the region
+     * shape and recording contraband blocks (e.g., sugar cane, bamboo, etc.).
+     * Chunks whose palette cannot hold contraband are skipped, the rest are
+     * read through a snapshot so no per-block objects are created. Containers
+     * are found through the chunks' tile entities.
+     */
+    private ScanResult performShakedown(World world, ProtectedRegion region) {
+        RegionShape shape = RegionShape.of(world, region);
+        long start = System.nanoTime();
+        ScanResult result = new ScanResult(world);
+        scanBlocks(shape, result);
+        // Check chests and other containers for contraband items
+        NestedContainerScanner nested = newNestedScanner();
+        for (Container container : ContainerLocator.findContainers(shape)) {
+            result.inspectContainer(container, contrabandMatcher, nested);
+        }
+        result.addMainThreadNanos(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Records the contraband blocks of a region shape, skipping chunks whose
+     * palette cannot hold contraband. Main thread only.
+     */
+    private void scanBlocks(RegionShape shape, ScanResult result) {
+        World world = shape.getWorld();
+        PaletteProbe probe = contrabandMatcher.getPaletteProbe();
+        int skipped = 0;
+
+        for (RegionShape.ChunkColumns columns : shape.getChunks()) {
+            Chunk chunk = world.getChunkAt(columns.getChunkX(), columns.getChunkZ());
+            if (!probe.mayContain(chunk::contains)) {
+                result.addBlocksScanned(shape.getVolume(columns));
+                skipped++;
+                continue;
             }
+            ChunkSnapshot snapshot = chunk.getChunkSnapshot(false, false, false);
+            result.merge(SnapshotScanner.scanChunk(world, snapshot, columns, contrabandMatcher,
+                    shape.getMinY(), shape.getMaxY()));
         }
-        // Execute removal tasks (already on main thread)
-        removalTasks.forEach(Runnable::run);
-        // After modifications, reward or punish
-        postShakedown(guard, prisoner, region, foundContraband);
+        Debug.info("Palette probe skipped {}/{} chunks", skipped, shape.getChunks().size());
     }
 
     /**
-     * Called once the search and removal tasks complete. Persists the
-     * shakedown timestamp, runs configured reward or punishment commands,
-     * broadcasts results and removes the temporary guard group from the region.
+     * Called once the search and removal tasks complete. Runs configured
+     * reward or punishment commands, sends the configured result messages
+     * and removes the temporary guard group from the regions. Messages and
+     * commands are precompiled templates sharing one set of values.
+     *
+     * @param counts the confiscated amount per type, blocks and items together
      */
-    private void postShakedown(Player guard, Player prisoner, ProtectedRegion region, List<ItemStack> contrabandFound) {
-        // Persist cooldown
-        dataManager.recordShakedown(prisoner.getUniqueId().toString());
-        // Remove guard group from region to restore access control
-        RegionUtils.removeGroupFromRegion(region, config.getGuardGroup());
-        // Build summary of removed items
+    private void postShakedown(Guard guard, Player prisoner, List<Cell> cells, List<ItemStack> contrabandFound,
+                               Map<Material, Integer> counts, RunTimings run, boolean quiet) {
+        // Remove guard group from regions to restore access control
+        for (Cell cell : cells) {
+            RegionUtils.removeGroupFromRegion(cell.region(), config.getGuardGroup());
+        }
+        int total = 0;
+        for (int count : counts.values()) {
+            total += count;
+        }
+        TemplateValues values = templateValues(guard.name(), prisoner, regionLabel(cells))
+                .with(TemplateKey.COUNT, Integer.toString(total))
+                .with(TemplateKey.ITEMS, counts.entrySet().stream()
+                        .map(e -> e.getValue() + "x " + e.getKey().name().toLowerCase(Locale.ROOT))
+                        .collect(Collectors.joining(", ")))
+                .with(TemplateKey.DURATION, Math.max(0, (System.currentTimeMillis() - run.startedAt) / 1000) + "s");
         if (!contrabandFound.isEmpty()) {
-            Debug.info("Contraband count=" + contrabandFound.size());
-            String summary = contrabandFound.stream()
-                    .collect(Collectors.groupingBy(ItemStack::getType, Collectors.summingInt(ItemStack::getAmount)))
-                    .entrySet().stream()
-                    .map(e -> e.getValue() + "x " + e.getKey().name().toLowerCase())
-                    .collect(Collectors.joining(", "));
+            Debug.info("Contraband count={}", contrabandFound.size());
             // Notify guard and prisoner
-            guard.sendMessage(mini.deserialize("<gold>Contraband found: <white>" + summary + "</white></gold>"));
-            prisoner.sendMessage(mini.deserialize("<red>Contraband has been confiscated from your cell.</red>"));
-            // Run punishment commands
-            for (String cmd : config.getPunishmentCommands()) {
-                String parsed = cmd.replace("{player}", prisoner.getName()).replace("{guard}", guard.getName());
-                Bukkit.dispatchCommand(Bukkit.getConsoleSender(), parsed);
-            }
+            if (!quiet) send(guard::sendMessage, config.getContrabandFoundMessage(), values);
+            send(prisoner::sendMessage, config.getConfiscatedMessage(), values);
+            // Queue punishment actions
+            actionQueue.submit(config.getPunishmentActions(), values);
         } else {
-            guard.sendMessage(mini.deserialize("<green>No contraband found.</green>"));
+            if (!quiet) send(guard::sendMessage, config.getNoContrabandMessage(), values);
             // Reward guard for fair search
-            for (String cmd : config.getNoContrabandCommands()) {
-                String parsed = cmd.replace("{player}", prisoner.getName()).replace("{guard}", guard.getName());
-                Bukkit.dispatchCommand(Bukkit.getConsoleSender(), parsed);
+            actionQueue.submit(config.getNoContrabandActions(), values);
+        }
+        // Always run reward actions on success of search (contraband or not)
+        actionQueue.submit(config.getRewardActions(), values);
+    }
+
+    /**
+     * @param region the region ID, or the IDs of all regions of the job
+     */
+    private static TemplateValues templateValues(String guardName, Player prisoner, String region) {
+        return new TemplateValues()
+                .with(TemplateKey.PLAYER, prisoner.getName())
+                .with(TemplateKey.GUARD, guardName)
+                .with(TemplateKey.REGION, region);
+    }
+
+    private static String regionLabel(List<Cell> cells) {
+        return cells.stream().map(cell -> cell.region().getId()).collect(Collectors.joining(", "));
+    }
+
+    private static void send(Consumer<Component> target, MessageTemplate message,
+                             TemplateValues values) {
+        if (!message.isEmpty()) target.accept(message.render(values));
+    }
+
+    /**
+     * Handles `/shakedown preview <regionId|player>`: scans the target the
+     * same way a shakedown would, but only shows the guard what would be
+     * confiscated. The result is cached so `/shakedown confirm` can apply
+     * it without scanning again.
+     */
+    private boolean startPreview(CommandSender sender, String[] args) {
+        if (!(sender instanceof Player guard)) {
+            sender.sendMessage(mini.deserialize("<red>Only players can execute shakedowns.</red>"));
+            return true;
+        }
+        if (!guard.hasPermission("shakedown.use")) {
+            guard.sendMessage(mini.deserialize("<red>You don't have permission to use this command.</red>"));
+            return true;
+        }
+        if (args.length < 2) {
+            guard.sendMessage(mini.deserialize("<red>Usage: /shakedown preview <regionId|player></red>"));
+            return true;
+        }
+        Target target = resolveTarget(guard, args[1]);
+        if (target == null) {
+            return true;
+        }
+        Player prisoner = target.prisoner();
+        // Previews cover the primary region; a shakedown of the player still searches all of them
+        ProtectedRegion region = target.cells().get(0).region();
+        World world = target.cells().get(0).world();
+        guard.sendMessage(mini.deserialize("<gray>Scanning <white>" + region.getId() + "</white> for a preview...</gray>"));
+        // Taken before the scan reads anything, so a change made while it runs shows up on confirm
+        long fingerprint;
+        CompletableFuture<ScanResult> scan;
+        try {
+            fingerprint = RegionFingerprint.of(RegionShape.of(world, region),
+                    contrabandIndex.changeVersion(world, region));
+            scan = scanForPreview(guard, world, region);
+        } catch (Throwable ex) {
+            fingerprint = 0;
+            scan = CompletableFuture.failedFuture(ex);
+        }
+        long scannedFingerprint = fingerprint;
+        scan.whenComplete((result, ex) -> {
+            if (ex != null) {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                Debug.error("Preview of region " + region.getId() + " failed: " + cause.getMessage(), cause);
+                guard.sendMessage(mini.deserialize("<red>An error occurred during the preview: <white>"
+                        + cause.getMessage() + "</white></red>"));
+                return;
+            }
+            previewCache.put(guard.getUniqueId(), prisoner.getUniqueId(), world, region, result, scannedFingerprint);
+            if (guard.isOnline()) sendPreview(guard, prisoner, region, result);
+        });
+        return true;
+    }
+
+    /**
+     * Scans a region without touching it or the contraband index. The
+     * future completes on the main thread.
+     */
+    private CompletableFuture<ScanResult> scanForPreview(Player guard, World world, ProtectedRegion region) {
+        ScanResult indexed = contrabandIndex.peekIndexed(world, region, newNestedScanner());
+        if (indexed != null) {
+            return CompletableFuture.completedFuture(indexed);
+        }
+        return switch (config.getScanMode()) {
+            case SNAPSHOT -> snapshotScanner.scan(world, region, contrabandMatcher, newNestedScanner());
+            case INCREMENTAL -> incrementalScanner.scan(world, region, contrabandMatcher, newNestedScanner(), guard);
+            default -> CompletableFuture.completedFuture(performShakedown(world, region));
+        };
+    }
+
+    private void sendPreview(Player guard, Player prisoner, ProtectedRegion region, ScanResult result) {
+        Map<Material, Integer> counts = new EnumMap<>(Material.class);
+        for (int i = 0; i < result.getBlockCount(); i++) {
+            counts.merge(result.getBlock(i).getType(), 1, Integer::sum);
+        }
+        int hiding = 0;
+        // Both halves of a double chest report the shared inventory, so count each inventory once
+        Set<Location> counted = new HashSet<>();
+        for (ScanResult.ContainerHit hit : result.getContainerHits()) {
+            if (!(hit.block().getState(false) instanceof Container container)) continue;
+            Inventory inventory = container.getInventory();
+            Location key = inventory.getHolder(false) instanceof DoubleChest chest ? chest.getLocation()
+                    : hit.block().getLocation();
+            if (!counted.add(key)) continue;
+            for (int slot : hit.slots()) {
+                ItemStack item = inventory.getItem(slot);
+                if (item != null) counts.merge(item.getType(), item.getAmount(), Integer::sum);
             }
+            hiding += hit.nestedSlots().length;
         }
-        // Always run reward commands on success of search (contraband or not)
-        for (String cmd : config.getRewardCommands()) {
-            String parsed = cmd.replace("{player}", prisoner.getName()).replace("{guard}", guard.getName());
-            Bukkit.dispatchCommand(Bukkit.getConsoleSender(), parsed);
+        guard.sendMessage(mini.deserialize("<#9D4EDD><bold>Preview</bold></#9D4EDD> <#ADB5BD>»</#ADB5BD> <white>"
+                + region.getId() + "</white> <#ADB5BD>[</#ADB5BD><#06FFA5>" + prisoner.getName()
+                + "</#06FFA5><#ADB5BD>]</#ADB5BD>"));
+        guard.sendMessage(mini.deserialize(counts.isEmpty()
+                ? "<green>No contraband found.</green>"
+                : "<gold>Would confiscate: <white>" + counts.entrySet().stream()
+                        .map(e -> e.getValue() + "x " + e.getKey().name().toLowerCase(Locale.ROOT))
+                        .collect(Collectors.joining(", ")) + "</white></gold>"));
+        if (hiding > 0) {
+            guard.sendMessage(mini.deserialize("<gold>Plus contraband hidden in <white>" + hiding
+                    + "</white> shulker boxes or bundles.</gold>"));
         }
+        guard.sendMessage(mini.deserialize("<gray>Run <white>/shakedown confirm</white> within <white>"
+                + previewCache.getTtlMillis() / 1000 + "s</white> to apply it.</gray>"));
+    }
+
+    /**
+     * Handles `/shakedown confirm`: runs a shakedown of the guard's last
+     * previewed region. The cached result is applied if the region's
+     * fingerprint still matches, otherwise the region is scanned again.
+     * Cooldown and concurrency checks apply as for any shakedown.
+     */
+    private boolean confirmPreview(CommandSender sender) {
+        if (!(sender instanceof Player guard)) {
+            sender.sendMessage(mini.deserialize("<red>Only players can execute shakedowns.</red>"));
+            return true;
+        }
+        if (!guard.hasPermission("shakedown.use")) {
+            guard.sendMessage(mini.deserialize("<red>You don't have permission to use this command.</red>"));
+            return true;
+        }
+        PreviewCache.Preview preview = previewCache.take(guard.getUniqueId());
+        if (preview == null) {
+            guard.sendMessage(mini.deserialize("<red>Nothing to confirm. Run <white>/shakedown preview <target></white> first.</red>"));
+            return true;
+        }
+        Player prisoner = Bukkit.getPlayer(preview.prisoner());
+        if (prisoner == null) {
+            guard.sendMessage(mini.deserialize("<red>The region owner must be online for a shakedown.</red>"));
+            return true;
+        }
+        dataManager.getLastShakedown(prisoner.getUniqueId().toString()).whenComplete((last, ex) -> {
+            if (ex != null) {
+                Debug.error("Cooldown lookup failed: " + ex.getMessage(), ex);
+                guard.sendMessage(mini.deserialize("<red>Could not look up the cooldown. Try again.</red>"));
+                return;
+            }
+            if (!guard.isOnline() || !prisoner.isOnline()) return;
+            ScanResult previewed = preview.result();
+            RegionShape shape = RegionShape.of(preview.world(), preview.region());
+            long blockVersion = contrabandIndex.changeVersion(preview.world(), preview.region());
+            if (RegionFingerprint.of(shape, blockVersion) != preview.fingerprint()) {
+                Debug.info("Region {} changed since its preview, scanning again", preview.region().getId());
+                guard.sendMessage(mini.deserialize("<gray>The region changed since the preview, scanning it again.</gray>"));
+                previewed = null;
+            } else if (blockVersion < 0) {
+                // Nothing tracked block changes since the preview: re-check the blocks, keep the containers
+                long start = System.nanoTime();
+                ScanResult result = new ScanResult(preview.world());
+                scanBlocks(shape, result);
+                result.mergeContainers(previewed);
+                result.addMainThreadNanos(System.nanoTime() - start);
+                previewed = result;
+            }
+            startShakedown(guard, prisoner, List.of(new Cell(preview.world(), preview.region())), last, 0, previewed);
+        });
+        return true;
+    }
+
+    /**
+     * Handles `/shakedown sweep <regex|world|parent-region>`. Resolves the
+     * matching ARM regions, skips those whose occupant is offline or on
+     * cooldown and queues the rest on the sweep scheduler. The guard gets
+     * one report once every queued region is done.
+     */
+    private boolean startSweep(CommandSender sender, String[] args) {
+        if (!(sender instanceof Player guard)) {
+            sender.sendMessage(mini.deserialize("<red>Only players can run sweeps.</red>"));
+            return true;
+        }
+        if (!guard.hasPermission("shakedown.sweep")) {
+            guard.sendMessage(mini.deserialize("<red>You don't have permission to run sweeps.</red>"));
+            return true;
+        }
+        if (args.length < 2) {
+            guard.sendMessage(mini.deserialize("<red>Usage: /shakedown sweep <regex|world|parent-region></red>"));
+            return true;
+        }
+        String selector = args[1];
+        List<ArmRegionIndex.Entry> entries;
+        try {
+            entries = selectSweepRegions(selector);
+        } catch (PatternSyntaxException ex) {
+            guard.sendMessage(mini.deserialize("<red>Invalid pattern: <white>" + ex.getDescription() + "</white></red>"));
+            return true;
+        }
+        if (entries.isEmpty()) {
+            guard.sendMessage(mini.deserialize("<red>No ARM regions match <white>" + selector + "</white>.</red>"));
+            return true;
+        }
+        SweepReport report = new SweepReport(selector);
+        report.matched(entries.size());
+        // One job per prisoner, so someone with several matching regions gets one result and cooldown
+        Map<UUID, List<Cell>> byPrisoner = new LinkedHashMap<>();
+        for (ArmRegionIndex.Entry entry : entries) {
+            Player prisoner = entry.primaryUser().map(Bukkit::getPlayer).orElse(null);
+            if (prisoner == null) {
+                report.skip(SweepReport.Skip.OFFLINE, 1);
+                continue;
+            }
+            World world = Bukkit.getWorld(entry.world());
+            ProtectedRegion region = world == null ? null : RegionUtils.getWorldGuardRegionById(world, entry.id()).orElse(null);
+            if (region == null) {
+                report.skip(SweepReport.Skip.MISSING, 1);
+                continue;
+            }
+            byPrisoner.computeIfAbsent(prisoner.getUniqueId(), k -> new ArrayList<>()).add(new Cell(world, region));
+        }
+        List<SweepTarget> targets = new ArrayList<>(byPrisoner.size());
+        byPrisoner.forEach((prisoner, cells) -> targets.add(new SweepTarget(cells, prisoner)));
+        // Cooldowns may have to be read from storage first; all lookups complete on the main thread
+        List<CompletableFuture<Long>> lookups = new ArrayList<>(targets.size());
+        for (SweepTarget target : targets) {
+            lookups.add(dataManager.getLastShakedown(target.prisoner().toString()));
+        }
+        boolean bypass = guard.hasPermission("shakedown.admin");
+        Guard sweepGuard = Guard.of(guard);
+        CompletableFuture.allOf(lookups.toArray(new CompletableFuture[0])).whenComplete((ignored, ex) -> {
+            long now = Instant.now().getEpochSecond();
+            long cooldown = config.getCooldown().toSeconds();
+            List<SweepTarget> eligible = new ArrayList<>(targets.size());
+            for (int i = 0; i < targets.size(); i++) {
+                SweepTarget target = targets.get(i);
+                CompletableFuture<Long> lookup = lookups.get(i);
+                if (lookup.isCompletedExceptionally()) {
+                    report.failed(regionLabel(target.cells()));
+                    continue;
+                }
+                long last = lookup.join();
+                if (!bypass && last > 0 && now - last < cooldown) {
+                    report.skip(SweepReport.Skip.COOLDOWN, target.cells().size());
+                    continue;
+                }
+                eligible.add(target);
+            }
+            if (eligible.isEmpty()) {
+                sendSweepReport(sweepGuard, report);
+                return;
+            }
+            int regions = eligible.stream().mapToInt(target -> target.cells().size()).sum();
+            Debug.info(() -> "Sweep " + selector + " queued " + regions + " regions of " + eligible.size()
+                    + " prisoners, scheduler queued=" + sweepScheduler.queued()
+                    + ", running=" + sweepScheduler.running());
+            Bukkit.getServer().sendMessage(mini.deserialize(
+                    "!<#9D4EDD><bold>Shakedown</bold></#9D4EDD> <#ADB5BD>»</#ADB5BD> <#FF6B6B>Sweep of </#FF6B6B><white>"
+                            + selector + "</white> <#ADB5BD>[</#ADB5BD><#06FFA5>" + regions
+                            + " cells</#06FFA5><#ADB5BD>]</#ADB5BD>"));
+            report.queued(eligible.size());
+            for (SweepTarget target : eligible) {
+                sweepScheduler.submit(() -> runSweepJob(sweepGuard, target, report));
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Resolves a sweep selector: a world name selects every ARM region in
+     * that world, the ID of a region with children selects the ARM regions
+     * below it, anything else is a regex matched against ARM region IDs.
+     *
+     * @throws PatternSyntaxException if the selector is used as a regex and is invalid
+     */
+    private List<ArmRegionIndex.Entry> selectSweepRegions(String selector) {
+        List<ArmRegionIndex.Entry> all = RegionUtils.listArmRegionEntries();
+        List<ArmRegionIndex.Entry> selected = new ArrayList<>();
+        World world = Bukkit.getWorld(selector);
+        if (world != null) {
+            for (ArmRegionIndex.Entry entry : all) {
+                if (entry.world().equals(world.getName())) selected.add(entry);
+            }
+            return selected;
+        }
+        ProtectedRegion parent = RegionUtils.findWorldGuardRegionByIdAnyWorld(selector).orElse(null);
+        if (parent != null) {
+            for (ArmRegionIndex.Entry entry : all) {
+                World entryWorld = Bukkit.getWorld(entry.world());
+                ProtectedRegion region = entryWorld == null ? null
+                        : RegionUtils.getWorldGuardRegionById(entryWorld, entry.id()).orElse(null);
+                if (region != null && isChildOf(region, parent)) selected.add(entry);
+            }
+            if (!selected.isEmpty()) return selected;
+        }
+        Pattern pattern = Pattern.compile(selector, Pattern.CASE_INSENSITIVE);
+        for (ArmRegionIndex.Entry entry : all) {
+            if (pattern.matcher(entry.id()).matches()) selected.add(entry);
+        }
+        return selected;
+    }
+
+    private static boolean isChildOf(ProtectedRegion region, ProtectedRegion parent) {
+        for (ProtectedRegion p = region.getParent(); p != null; p = p.getParent()) {
+            if (p == parent) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Runs one job of a sweep or an automatic round on the sweep scanner,
+     * covering all regions of one prisoner the sweep or round selected. The
+     * returned future completes on the main thread once the job
+     * is done, successfully or not, which frees its slot in the scheduler.
+     */
+    private CompletableFuture<?> runSweepJob(Guard guard, SweepTarget target, SweepReport report) {
+        List<Cell> cells = target.cells();
+        Player prisoner = Bukkit.getPlayer(target.prisoner());
+        if (prisoner == null || isActive(cells)) {
+            report.skip(prisoner == null ? SweepReport.Skip.OFFLINE : SweepReport.Skip.BUSY, cells.size());
+            if (report.jobDone()) sendSweepReport(guard, report);
+            return CompletableFuture.completedFuture(null);
+        }
+        String label = regionLabel(cells);
+        RunTimings run = new RunTimings(0);
+        for (Cell cell : cells) {
+            activeShakedowns.add(cell.region().getId());
+            // The system identity has no one to let into the region
+            if (!guard.isSystem()) RegionUtils.addGroupToRegion(cell.region(), config.getGuardGroup());
+        }
+        showSearchTitle(prisoner, templateValues(guard.name(), prisoner, label));
+        List<CompletableFuture<ScanResult>> scans = new ArrayList<>(cells.size());
+        for (Cell cell : cells) {
+            scans.add(scanCell(cell, null, c -> sweepScanner.scan(c.world(), c.region(), contrabandMatcher,
+                    newNestedScanner(), null)));
+        }
+        return CompletableFuture.allOf(scans.toArray(new CompletableFuture[0])).handle((ignored, ex) -> {
+            try {
+                if (ex != null) {
+                    throw unwrap(ex);
+                }
+                completeShakedown(guard, prisoner, cells, joinAll(scans), run, true).forEach(report::searched);
+            } catch (Throwable t) {
+                for (Cell cell : cells) {
+                    contrabandIndex.invalidate(cell.world(), cell.region());
+                }
+                report.failed(label);
+                Debug.error("Sweep of region " + label + " failed: " + t.getMessage(), t);
+            } finally {
+                for (Cell cell : cells) {
+                    finishShakedown(cell.region());
+                }
+                if (report.jobDone()) sendSweepReport(guard, report);
+            }
+            return null;
+        });
+    }
+
+    private void sendSweepReport(Guard guard, SweepReport report) {
+        for (String line : report.format()) {
+            if (guard.isSystem()) {
+                Debug.info(mini.stripTags(line));
+            } else {
+                guard.sendMessage(mini.deserialize(line));
+            }
+        }
+        Debug.info("Sweep {} finished", report.getSelector());
+    }
+
+    /**
+     * Queues one job per prisoner picked by an automatic round on the sweep
+     * scheduler, covering all of the prisoner's regions, so they share the
+     * sweep budget. The cooldown was checked when they were picked; the
+     * guard is the configured system identity.
+     */
+    private void runAutoShakedowns(List<UUID> prisoners) {
+        Guard guard = Guard.system(config.getAutoGuardUuid(), config.getAutoGuardName());
+        SweepReport report = new SweepReport("automatic");
+        List<SweepTarget> targets = new ArrayList<>(prisoners.size());
+        for (UUID id : prisoners) {
+            Player prisoner = Bukkit.getPlayer(id);
+            List<Cell> cells = prisoner == null ? List.of() : findCellsOf(id);
+            if (cells.isEmpty()) {
+                // Count the prisoner as one region, as there is none to count
+                report.matched(1);
+                report.skip(prisoner == null ? SweepReport.Skip.OFFLINE : SweepReport.Skip.MISSING, 1);
+                continue;
+            }
+            report.matched(cells.size());
+            targets.add(new SweepTarget(cells, id));
+        }
+        if (targets.isEmpty()) {
+            sendSweepReport(guard, report);
+            return;
+        }
+        report.queued(targets.size());
+        for (SweepTarget target : targets) {
+            sweepScheduler.submit(() -> runSweepJob(guard, target, report));
+        }
+    }
+
+    /**
+     * A job queued by a sweep or an automatic round, with the occupant
+     * resolved when queued.
+     */
+    private record SweepTarget(List<Cell> cells, UUID prisoner) {
+    }
+
+    /**
+     * Handles `/shakedown history <player|region> [page]`. Players match
+     * shakedowns where they were the prisoner or the guard. Pages are loaded
+     * off the main thread.
+     */
+    private boolean showHistory(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("shakedown.use")) {
+            sender.sendMessage(mini.deserialize("<red>You don't have permission to use this command.</red>"));
+            return true;
+        }
+        if (args.length < 2) {
+            sender.sendMessage(mini.deserialize("<red>Usage: /shakedown history <player|region> [page]</red>"));
+            return true;
+        }
+        int page = 1;
+        if (args.length >= 3) {
+            try {
+                page = Math.max(1, Integer.parseInt(args[2]));
+            } catch (NumberFormatException ex) {
+                sender.sendMessage(mini.deserialize("<red>Page must be a number.</red>"));
+                return true;
+            }
+        }
+        String target = args[1];
+        // Names of players who never joined fall through to a region lookup
+        OfflinePlayer player = Bukkit.getOfflinePlayerIfCached(target);
+        HistoryQuery query = player != null ? HistoryQuery.player(player.getUniqueId()) : HistoryQuery.region(target);
+        dataManager.getHistory(query, page, HISTORY_PAGE_SIZE).whenComplete((result, ex) -> {
+            if (ex != null) {
+                Debug.error("History lookup failed: " + ex.getMessage(), ex);
+                sender.sendMessage(mini.deserialize("<red>Could not load the shakedown history.</red>"));
+                return;
+            }
+            sendHistoryPage(sender, target, result);
+        });
+        return true;
+    }
+
+    private void sendHistoryPage(CommandSender sender, String target, HistoryStore.Page result) {
+        if (result.records().isEmpty()) {
+            sender.sendMessage(mini.deserialize(result.page() == 1
+                    ? "<gray>No shakedowns recorded for <white>" + target + "</white>.</gray>"
+                    : "<gray>No more shakedowns for <white>" + target + "</white>.</gray>"));
+            return;
+        }
+        sender.sendMessage(mini.deserialize("<#9D4EDD><bold>Shakedown history</bold></#9D4EDD> <#ADB5BD>»</#ADB5BD> <white>"
+                + target + "</white> <gray>(page " + result.page() + ")</gray>"));
+        for (ShakedownRecord record : result.records()) {
+            String found;
+            if (record.contraband().isEmpty()) {
+                found = "<green>clean</green>";
+            } else {
+                found = "<gold>" + record.contraband().entrySet().stream()
+                        .map(e -> e.getValue() + "x " + e.getKey().toLowerCase(Locale.ROOT))
+                        .collect(Collectors.joining(", ")) + "</gold>";
+            }
+            long seconds = Math.max(0, (record.endedAt() - record.startedAt()) / 1000);
+            sender.sendMessage(mini.deserialize("<gray>" + HISTORY_TIME.format(Instant.ofEpochMilli(record.startedAt()))
+                    + "</gray> <white>" + record.region() + "</white> <#06FFA5>" + record.prisonerName()
+                    + "</#06FFA5> <gray>by</gray> <white>" + record.guardName() + "</white> <gray>(" + seconds
+                    + "s, " + record.blocksScanned() + " blocks)</gray> " + found));
+        }
+        if (result.hasMore()) {
+            sender.sendMessage(mini.deserialize("<gray>Next page: <white>/shakedown history " + target + " "
+                    + (result.page() + 1) + "</white></gray>"));
+        }
+    }
+
+    /**
+     * Handles `/shakedown stats`: totals and phase timings since startup.
+     */
+    private boolean showStats(CommandSender sender) {
+        if (!sender.hasPermission("shakedown.admin")) {
+            sender.sendMessage(mini.deserialize("<red>You don't have permission to view stats.</red>"));
+            return true;
+        }
+        sender.sendMessage(mini.deserialize("<#9D4EDD><bold>Shakedown stats</bold></#9D4EDD> <#ADB5BD>»</#ADB5BD> <white>"
+                + Metrics.runs() + "</white> <gray>runs,</gray> <white>" + Metrics.blocksScanned()
+                + "</white> <gray>blocks,</gray> <white>" + Metrics.containersVisited()
+                + "</white> <gray>containers,</gray> <white>" + Metrics.itemsInspected() + "</white> <gray>items</gray>"));
+        Histogram rate = Metrics.blocksPerSecond();
+        sender.sendMessage(mini.deserialize("<gray>blocks/s</gray> <white>p50 " + rate.quantile(0.5) + " · p99 "
+                + rate.quantile(0.99) + "</white>"));
+        sender.sendMessage(mini.deserialize("<gray>actions</gray> <white>" + actionQueue.completed() + " done · "
+                + actionQueue.failed() + " failed · " + actionQueue.size() + " queued</white>"));
+        sender.sendMessage(mini.deserialize(timingLine("main thread/run", Metrics.mainThread())));
+        for (Metrics.Phase phase : Metrics.Phase.values()) {
+            sender.sendMessage(mini.deserialize(timingLine(phase.key(), Metrics.phase(phase))));
+        }
+        return true;
+    }
+
+    private boolean rebuildArmIndex(CommandSender sender) {
+        if (!sender.hasPermission("shakedown.admin")) {
+            sender.sendMessage(mini.deserialize("<red>You don't have permission to rebuild the index.</red>"));
+            return true;
+        }
+        if (!config.isArmIndexEnabled()) {
+            sender.sendMessage(mini.deserialize("<red>The ARM region index is disabled in the config.</red>"));
+            return true;
+        }
+        sender.sendMessage(mini.deserialize("<gray>Rebuilding the ARM region index...</gray>"));
+        armRegionIndex.rebuild().whenComplete((count, ex) -> {
+            if (ex != null) {
+                sender.sendMessage(mini.deserialize("<red>" + ex.getMessage() + ".</red>"));
+            } else {
+                sender.sendMessage(mini.deserialize("<#51CF66>ARM region index rebuilt: " + count
+                        + " regions.</#51CF66>"));
+            }
+        });
+        return true;
+    }
+
+    private static String timingLine(String name, Histogram histogram) {
+        return String.format(Locale.ROOT, "<gray>%s</gray> <white>n=%d · p50 %.2fms · p99 %.2fms · max %.2fms</white>",
+                name, histogram.count(), histogram.quantile(0.5) / 1e6, histogram.quantile(0.99) / 1e6,
+                histogram.max() / 1e6);
     }
 
     /**
@@ -282,50 +1172,84 @@ public class ShakedownManager implements CommandExecutor, TabCompleter, Listener
      * Adventure. Also sets a title message for the targeted prisoner to
      * indicate that their cell is being searched.
      */
-    private void broadcastShakedownStart(Player guard, Player prisoner, ProtectedRegion region) {
-        String regionId = region.getId();
-        // Add guard group to region at start
-        RegionUtils.addGroupToRegion(region, config.getGuardGroup());
-        // Compose broadcast
-        Component broadcast = mini.deserialize(
-                "!<#9D4EDD><bold>Shakedown</bold></#9D4EDD> <#ADB5BD>»</#ADB5BD> <#FF6B6B>Region </#FF6B6B><white>" +
-                        regionId + "</white> <#ADB5BD>[</#ADB5BD><#06FFA5>" + prisoner.getName() + "</#06FFA5><#ADB5BD>]</#ADB5BD>");
-        org.bukkit.Bukkit.getServer().sendMessage(broadcast);
-        // Title message to prisoner
-        Component title = mini.deserialize("<#9D4EDD><bold>Shakedown</bold></#9D4EDD>");
-        Component subtitle = mini.deserialize("<#FF6B6B>Your cell is being searched!</#FF6B6B>");
+    private void broadcastShakedownStart(Player guard, Player prisoner, List<Cell> cells) {
+        // Add guard group to the regions at start
+        for (Cell cell : cells) {
+            RegionUtils.addGroupToRegion(cell.region(), config.getGuardGroup());
+        }
+        TemplateValues values = templateValues(guard.getName(), prisoner, regionLabel(cells));
+        send(Bukkit.getServer()::sendMessage, config.getStartBroadcast(), values);
+        showSearchTitle(prisoner, values);
+    }
+
+    /**
+     * Shows the prisoner a title telling them their cell is being searched.
+     */
+    private void showSearchTitle(Player prisoner, TemplateValues values) {
         Title.Times times = Title.Times.times(java.time.Duration.ofSeconds(0), java.time.Duration.ofSeconds(3), java.time.Duration.ofSeconds(2));
-        prisoner.showTitle(Title.title(title, subtitle, times));
+        prisoner.showTitle(Title.title(config.getSearchTitle().render(values), config.getSearchSubtitle().render(values),
+                times));
     }
 
     /**
-     * Attempts to find a region owned by the given player UUID using ARM. If
-     * ARM is unavailable or the player owns multiple regions, the first match
-     * will be returned. Returns null if none found.
+     * Finds every ARM region the player owns, rents or is a member of, in
+     * the order of {@link RegionUtils#listArmRegionsOwnedBy}: owned first,
+     * then rented, then memberships. Regions WorldGuard no longer has are
+     * left out.
+     */
+    private List<Cell> findCellsOf(UUID owner) {
+        List<String> regions = RegionUtils.listArmRegionsOwnedBy(owner);
+        Debug.info("ARM regions for uuid={}: {}", owner, regions.size());
+        List<Cell> cells = new ArrayList<>(regions.size());
+        for (String regionId : regions) {
+            Cell cell = findCell(regionId);
+            if (cell != null) cells.add(cell);
+        }
+        return cells;
+    }
+
+    /**
+     * Looks a region up in the world the ARM index has it in, or in every
+     * world if it is not indexed.
      */
     @Nullable
-    private String findRegionOwnedBy(UUID owner) {
-        List<String> regions = dev.lsdmc.Shakedown.util.RegionUtils.listArmRegionsOwnedBy(owner);
-        Debug.info("ARM regions for uuid=" + owner + ": " + regions.size());
-        return regions.isEmpty() ? null : regions.get(0);
+    private Cell findCell(String regionId) {
+        World indexed = armRegionIndex.get(regionId).map(entry -> Bukkit.getWorld(entry.world())).orElse(null);
+        if (indexed != null) {
+            ProtectedRegion region = RegionUtils.getWorldGuardRegionById(indexed, regionId).orElse(null);
+            if (region != null) return new Cell(indexed, region);
+        }
+        for (World world : Bukkit.getWorlds()) {
+            ProtectedRegion region = RegionUtils.getWorldGuardRegionById(world, regionId).orElse(null);
+            if (region != null) return new Cell(world, region);
+        }
+        return null;
     }
 
     @Override
     public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command,
                                                 @NotNull String alias, @NotNull String[] args) {
-        if (args.length == 1) {
-            // Suggest online players and loaded region names
-            List<String> suggestions = new ArrayList<>();
-            suggestions.add("reload");
-            // Player names
-            for (Player p : Bukkit.getOnlinePlayers()) {
-                suggestions.add(p.getName());
-            }
-            // ARM region IDs if available
-            suggestions.addAll(RegionUtils.listArmRegionIds());
-            return suggestions;
+        // Normally answered asynchronously by the tab completer; this covers callers that bypass that event
+        return tabCompleter.complete(sender, args);
+    }
+
+    /**
+     * Timing of one shakedown run, carried from start to completion for the
+     * history and the metrics.
+     */
+    private static final class RunTimings {
+        private final long startedAt = System.currentTimeMillis();
+        private final long scanStart = System.nanoTime();
+        private long mainThreadNanos;
+
+        RunTimings(long resolveNanos) {
+            this.mainThreadNanos = resolveNanos;
         }
-        return Collections.emptyList();
+    }
+
+    @EventHandler
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        autoShakedowns.track(event.getPlayer());
     }
 
     // Event handlers could be extended to cleanup or cancel shakedowns if necessary
@@ -334,6 +1258,7 @@ public class ShakedownManager implements CommandExecutor, TabCompleter, Listener
         // If the targeted prisoner logs out during a shakedown, record timestamp to prevent abuse
         Player player = event.getPlayer();
         dataManager.recordShakedown(player.getUniqueId().toString());
+        autoShakedowns.untrack(player.getUniqueId());
     }
 
     @EventHandler
@@ -342,4 +1267,4 @@ public class ShakedownManager implements CommandExecutor, TabCompleter, Listener
         if (activeShakedowns.isEmpty()) return;
         // Additional logic can be added here to restrict breaking outside of search area
     }
-}
\ No newline at end of file
+}
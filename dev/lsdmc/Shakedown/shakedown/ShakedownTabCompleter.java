@@ -0,0 +1,155 @@
+package dev.lsdmc.Shakedown.shakedown;
+
+import com.destroystokyo.paper.event.server.AsyncTabCompleteEvent;
+import dev.lsdmc.Shakedown.util.ArmRegionIndex;
+import dev.lsdmc.Shakedown.util.PrefixIndex;
+import dev.lsdmc.Shakedown.util.RegionUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tab completion for {@code /shakedown}, answered off the main thread
+ * through Paper's {@link AsyncTabCompleteEvent}. Online player names live in
+ * a sorted concurrent map maintained from join and quit events, region IDs
+ * in a {@link PrefixIndex} rebuilt only when the {@link ArmRegionIndex}
+ * changes. Suggestions are filtered by the typed prefix and capped, so a
+ * keystroke never walks or sends the full region list.
+ */
+public final class ShakedownTabCompleter implements Listener {
+    private static final int MAX_SUGGESTIONS = 50;
+    // Without the ARM index the region list can only be read on the main thread
+    private static final long FALLBACK_REFRESH_MILLIS = 60_000;
+    private static final List<String> SUBCOMMANDS = List.of("history", "preview", "confirm");
+    private static final List<String> ADMIN_SUBCOMMANDS = List.of("reload", "stats", "reindex");
+
+    private final Plugin plugin;
+    private final ArmRegionIndex armIndex;
+    private final Set<String> labels = new HashSet<>();
+    // Lowercased name -> name
+    private final NavigableMap<String, String> players = new ConcurrentSkipListMap<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile PrefixIndex regions = PrefixIndex.empty();
+    private volatile long regionsVersion = -1;
+    private volatile long regionsBuiltAt;
+
+    public ShakedownTabCompleter(Plugin plugin, ArmRegionIndex armIndex) {
+        this.plugin = plugin;
+        this.armIndex = armIndex;
+        String namespace = plugin.getName().toLowerCase(Locale.ROOT) + ":";
+        PluginCommand command = Bukkit.getPluginCommand("shakedown");
+        List<String> names = new ArrayList<>();
+        names.add("shakedown");
+        if (command != null) names.addAll(command.getAliases());
+        for (String name : names) {
+            labels.add(name.toLowerCase(Locale.ROOT));
+            labels.add(namespace + name.toLowerCase(Locale.ROOT));
+        }
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            players.put(player.getName().toLowerCase(Locale.ROOT), player.getName());
+        }
+    }
+
+    /**
+     * Completes the arguments of {@code /shakedown}. Safe to call from any
+     * thread.
+     */
+    public List<String> complete(CommandSender sender, String[] args) {
+        List<String> out = new ArrayList<>();
+        if (args.length == 1) {
+            String prefix = args[0].toLowerCase(Locale.ROOT);
+            addMatching(SUBCOMMANDS, prefix, out);
+            if (sender.hasPermission("shakedown.sweep") && "sweep".startsWith(prefix)) out.add("sweep");
+            if (sender.hasPermission("shakedown.admin")) addMatching(ADMIN_SUBCOMMANDS, prefix, out);
+            addTargets(prefix, out);
+        } else if (args.length == 2 && (args[0].equalsIgnoreCase("history") || args[0].equalsIgnoreCase("preview"))) {
+            addTargets(args[1].toLowerCase(Locale.ROOT), out);
+        }
+        return out.isEmpty() ? Collections.emptyList() : out;
+    }
+
+    @EventHandler(ignoreCancelled = true)
+    public void onAsyncTabComplete(AsyncTabCompleteEvent event) {
+        if (!event.isCommand() || event.isHandled()) return;
+        String buffer = event.getBuffer();
+        int start = buffer.startsWith("/") ? 1 : 0;
+        int space = buffer.indexOf(' ', start);
+        if (space < 0) return;
+        if (!labels.contains(buffer.substring(start, space).toLowerCase(Locale.ROOT))) return;
+        // Keep the trailing empty argument so "/shakedown history " completes the second argument
+        String[] args = buffer.substring(space + 1).split(" ", -1);
+        event.setCompletions(complete(event.getSender(), args));
+        event.setHandled(true);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        String name = event.getPlayer().getName();
+        players.put(name.toLowerCase(Locale.ROOT), name);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        players.remove(event.getPlayer().getName().toLowerCase(Locale.ROOT));
+    }
+
+    private void addTargets(String prefix, List<String> out) {
+        for (Map.Entry<String, String> entry : players.tailMap(prefix, true).entrySet()) {
+            if (out.size() >= MAX_SUGGESTIONS || !entry.getKey().startsWith(prefix)) break;
+            out.add(entry.getValue());
+        }
+        regions().collect(prefix, MAX_SUGGESTIONS, out);
+    }
+
+    private static void addMatching(List<String> candidates, String prefix, List<String> out) {
+        for (String candidate : candidates) {
+            if (candidate.startsWith(prefix)) out.add(candidate);
+        }
+    }
+
+    /**
+     * Returns the region ID index, rebuilding it first if the ARM index has
+     * changed since the last build.
+     */
+    private PrefixIndex regions() {
+        if (armIndex.isReady()) {
+            long version = armIndex.version();
+            if (version != regionsVersion) {
+                synchronized (this) {
+                    if (version != regionsVersion) {
+                        regions = PrefixIndex.of(armIndex.regionIds());
+                        regionsVersion = version;
+                    }
+                }
+            }
+        } else if (System.currentTimeMillis() - regionsBuiltAt > FALLBACK_REFRESH_MILLIS
+                && refreshing.compareAndSet(false, true)) {
+            // Serve the previous list meanwhile; the scan must run on the main thread
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                regions = PrefixIndex.of(RegionUtils.listArmRegionIds());
+                regionsVersion = -1;
+                regionsBuiltAt = System.currentTimeMillis();
+                refreshing.set(false);
+            });
+        }
+        return regions;
+    }
+}
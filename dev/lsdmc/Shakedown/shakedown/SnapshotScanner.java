@@ -0,0 +1,131 @@
+package dev.lsdmc.Shakedown.shakedown;
+
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import dev.lsdmc.Shakedown.util.Debug;
+import dev.lsdmc.Shakedown.util.RegionShape;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+import org.bukkit.block.Container;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scans a region by capturing {@link ChunkSnapshot}s on the main thread and
+ * matching their blocks on a pool of worker threads. Container inventories
+ * cannot be read off the main thread, so they are inspected while the
+ * snapshots are captured. The returned future completes on the main thread,
+ * ready for the removals to be applied.
+ */
+public final class SnapshotScanner {
+    private final ExecutorService workers;
+    private final Executor mainThread;
+
+    public SnapshotScanner(Plugin plugin, int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "Shakedown-Scan-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.mainThread = r -> Bukkit.getScheduler().runTask(plugin, r);
+    }
+
+    /**
+     * Starts a scan of the given region. Must be called on the main thread.
+     *
+     * @param world   the world containing the region
+     * @param region  the region to scan
+     * @param matcher the contraband definitions to match against
+     * @param nested  nested container scanner of this shakedown
+     * @return a future completed on the main thread with the scan result
+     */
+    public CompletableFuture<ScanResult> scan(World world, ProtectedRegion region, ContrabandMatcher matcher,
+                                              NestedContainerScanner nested) {
+        long start = System.nanoTime();
+        // The shape also clips Y to the build height, which snapshots require
+        RegionShape shape = RegionShape.of(world, region);
+        int minY = shape.getMinY();
+        int maxY = shape.getMaxY();
+
+        ScanResult containers = new ScanResult(world);
+        List<ChunkSnapshot> snapshots = new ArrayList<>();
+        List<Container> found = new ArrayList<>();
+        for (RegionShape.ChunkColumns columns : shape.getChunks()) {
+            Chunk chunk = world.getChunkAt(columns.getChunkX(), columns.getChunkZ());
+            snapshots.add(chunk.getChunkSnapshot(false, false, false));
+            ContainerLocator.collect(chunk, region, found);
+        }
+        for (Container container : found) {
+            containers.inspectContainer(container, matcher, nested);
+        }
+        containers.addMainThreadNanos(System.nanoTime() - start);
+        Debug.info("Captured {} chunk snapshots for region={}", snapshots.size(), region.getId());
+
+        List<CompletableFuture<ScanResult>> parts = new ArrayList<>(snapshots.size());
+        for (int i = 0; i < snapshots.size(); i++) {
+            ChunkSnapshot snapshot = snapshots.get(i);
+            RegionShape.ChunkColumns columns = shape.getChunks().get(i);
+            parts.add(CompletableFuture.supplyAsync(
+                    () -> scanChunk(world, snapshot, columns, matcher, minY, maxY), workers));
+        }
+        return CompletableFuture.allOf(parts.toArray(new CompletableFuture[0]))
+                .handleAsync((ignored, ex) -> {
+                    // handleAsync so failures are also delivered on the main thread
+                    if (ex != null) throw new CompletionException(ex);
+                    for (CompletableFuture<ScanResult> part : parts) {
+                        containers.merge(part.join());
+                    }
+                    return containers;
+                }, mainThread);
+    }
+
+    /**
+     * Stops accepting new scans. Scans that were already submitted still run
+     * to completion on the existing worker threads.
+     */
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    /**
+     * Matches the blocks of one chunk snapshot against the contraband list.
+     * Chunks whose palette holds no contraband state are skipped outright,
+     * and so are empty (all-air) sections. Safe to call from any thread.
+     */
+    static ScanResult scanChunk(World world, ChunkSnapshot snapshot, RegionShape.ChunkColumns columns,
+                                ContrabandMatcher matcher, int minY, int maxY) {
+        ScanResult result = new ScanResult(world);
+        result.addBlocksScanned(maxY < minY ? 0 : (long) columns.columnCount() * (maxY - minY + 1));
+        if (!matcher.getPaletteProbe().mayContain(snapshot::contains)) {
+            return result;
+        }
+        int baseX = snapshot.getX() << 4;
+        int baseZ = snapshot.getZ() << 4;
+        int minSection = world.getMinHeight() >> 4;
+        for (int section = minY >> 4; section <= maxY >> 4; section++) {
+            if (snapshot.isSectionEmpty(section - minSection)) continue;
+            int fromY = Math.max(minY, section << 4);
+            int toY = Math.min(maxY, (section << 4) + 15);
+            for (int column = columns.nextColumn(0); column >= 0; column = columns.nextColumn(column + 1)) {
+                int localX = column & 15;
+                int localZ = column >> 4;
+                for (int y = fromY; y <= toY; y++) {
+                    if (matcher.isContrabandBlock(snapshot, localX, y, localZ)) {
+                        result.addBlock(baseX | localX, y, baseZ | localZ);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+}
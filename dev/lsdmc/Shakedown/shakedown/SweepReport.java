@@ -0,0 +1,118 @@
+package dev.lsdmc.Shakedown.shakedown;
+
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Aggregated outcome of a {@code /shakedown sweep}: how many regions were
+ * searched or skipped and why, and everything confiscated across all of
+ * them. Main thread only.
+ */
+final class SweepReport {
+    /**
+     * Why a matching region was not searched.
+     */
+    enum Skip {
+        COOLDOWN("on cooldown"),
+        OFFLINE("occupant offline"),
+        BUSY("already being searched"),
+        MISSING("region not loaded");
+
+        private final String label;
+
+        Skip(String label) {
+            this.label = label;
+        }
+    }
+
+    private final String selector;
+    private final long startedAt = System.currentTimeMillis();
+    private final Map<Skip, Integer> skipped = new EnumMap<>(Skip.class);
+    private final Map<Material, Integer> confiscated = new EnumMap<>(Material.class);
+    private final List<String> failed = new ArrayList<>();
+    private int matched;
+    private int searched;
+    private int withContraband;
+    private int pending;
+
+    SweepReport(String selector) {
+        this.selector = selector;
+    }
+
+    String getSelector() {
+        return selector;
+    }
+
+    void matched(int count) {
+        matched += count;
+    }
+
+    void skip(Skip reason, int regions) {
+        skipped.merge(reason, regions, Integer::sum);
+    }
+
+    /**
+     * Registers queued jobs; every queued job must later report through
+     * {@link #jobDone()}. Register all jobs before submitting the first, as
+     * a job may finish while it is being submitted.
+     */
+    void queued(int jobs) {
+        pending += jobs;
+    }
+
+    /**
+     * Registers one searched region.
+     *
+     * @param removed what was confiscated in it
+     */
+    void searched(Map<Material, Integer> removed) {
+        searched++;
+        if (!removed.isEmpty()) withContraband++;
+        removed.forEach((material, count) -> confiscated.merge(material, count, Integer::sum));
+    }
+
+    void failed(String regionId) {
+        failed.add(regionId);
+    }
+
+    /**
+     * @return true when this was the last outstanding job of the sweep
+     */
+    boolean jobDone() {
+        return --pending == 0;
+    }
+
+    /**
+     * @return the report as MiniMessage lines
+     */
+    List<String> format() {
+        List<String> lines = new ArrayList<>();
+        long seconds = (System.currentTimeMillis() - startedAt) / 1000;
+        lines.add("<#9D4EDD><bold>Sweep</bold></#9D4EDD> <#ADB5BD>»</#ADB5BD> <white>" + selector
+                + "</white> <gray>finished in</gray> <white>" + seconds + "s</white>");
+        lines.add("<gray>Matched</gray> <white>" + matched + "</white><gray>, searched</gray> <white>" + searched
+                + "</white><gray>, with contraband</gray> <white>" + withContraband + "</white>");
+        if (!skipped.isEmpty()) {
+            Map<String, Integer> reasons = new LinkedHashMap<>();
+            skipped.forEach((reason, count) -> reasons.put(reason.label, count));
+            lines.add("<gray>Skipped:</gray> <white>" + reasons.entrySet().stream()
+                    .map(e -> e.getValue() + " " + e.getKey()).collect(Collectors.joining(", ")) + "</white>");
+        }
+        if (!failed.isEmpty()) {
+            lines.add("<red>Failed:</red> <white>" + String.join(", ", failed) + "</white>");
+        }
+        lines.add(confiscated.isEmpty()
+                ? "<green>No contraband found.</green>"
+                : "<gold>Confiscated: <white>" + confiscated.entrySet().stream()
+                        .map(e -> e.getValue() + "x " + e.getKey().name().toLowerCase(Locale.ROOT))
+                        .collect(Collectors.joining(", ")) + "</white></gold>");
+        return lines;
+    }
+}
@@ -0,0 +1,48 @@
+package dev.lsdmc.Shakedown.shakedown;
+
+import net.milkbowl.vault.economy.Economy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.plugin.RegisteredServiceProvider;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link EconomyHook} backed by the Vault economy provider. This is the only
+ * class that touches the Vault API; it is only loaded once Vault is known
+ * to be enabled, so the plugin runs fine without it.
+ */
+final class VaultEconomy implements EconomyHook {
+    private final Economy economy;
+
+    private VaultEconomy(Economy economy) {
+        this.economy = economy;
+    }
+
+    /**
+     * @return the registered economy, or null if no economy plugin registered one yet
+     */
+    static @Nullable EconomyHook find() {
+        RegisteredServiceProvider<Economy> registration = Bukkit.getServicesManager().getRegistration(Economy.class);
+        return registration != null ? new VaultEconomy(registration.getProvider()) : null;
+    }
+
+    @Override
+    public void deposit(OfflinePlayer player, double amount) {
+        check(economy.depositPlayer(player, amount));
+    }
+
+    @Override
+    public void withdraw(OfflinePlayer player, double amount) {
+        if (!economy.has(player, amount)) {
+            throw new IllegalStateException(player.getName() + " cannot afford " + economy.format(amount));
+        }
+        check(economy.withdrawPlayer(player, amount));
+    }
+
+    private static void check(EconomyResponse response) {
+        if (!response.transactionSuccess()) {
+            throw new ActionQueue.Retry(response.errorMessage != null ? response.errorMessage : "transaction failed");
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package dev.lsdmc.Shakedown.util;
+
+import dev.lsdmc.Shakedown.PrisonShakedown;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Getters of one concrete ARM region class, resolved once and cached per
+ * class. The getter names differ between ARM versions and region types
+ * (sell, rent, contract regions), so each role lists candidates that are
+ * looked up when a class is first seen and bound as {@link MethodHandle}s.
+ * Later calls invoke the handles directly; a missing getter is simply not
+ * in the list instead of a {@link NoSuchMethodException} per call. What was
+ * found is logged once per class.
+ */
+final class ArmAccessors {
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final String[] ID = {"getRegionId", "getName"};
+    private static final String[] OWNER = {"getOwner", "getOwnerUUID", "getOwnerName", "getOwnerPlayer", "getOwners"};
+    private static final String[] RENTER = {"getRenter", "getTenant", "getLessee"};
+    private static final String[] MEMBERS = {"getTenants", "getMembers", "getUsers"};
+    private static final String[] WORLD = {"getRegionworld", "getRegionWorld", "getWorld"};
+
+    private static final ClassValue<ArmAccessors> CACHE = new ClassValue<>() {
+        @Override
+        protected ArmAccessors computeValue(Class<?> type) {
+            return new ArmAccessors(type);
+        }
+    };
+    // getId() of whatever getRegion() returns (ARM's WorldGuard region adapter)
+    private static final ClassValue<MethodHandle> WG_ID = new ClassValue<>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            return find(type, "getId");
+        }
+    };
+
+    private final MethodHandle wgRegion;
+    private final MethodHandle[] ids;
+    private final MethodHandle[] owners;
+    private final MethodHandle[] renters;
+    private final MethodHandle[] members;
+    private final MethodHandle[] worlds;
+
+    private ArmAccessors(Class<?> type) {
+        List<String> found = new ArrayList<>();
+        wgRegion = find(type, "getRegion");
+        if (wgRegion != null) found.add("getRegion().getId");
+        ids = findAll(type, ID, found);
+        owners = findAll(type, OWNER, found);
+        renters = findAll(type, RENTER, found);
+        members = findAll(type, MEMBERS, found);
+        worlds = findAll(type, WORLD, found);
+        Logger logger = PrisonShakedown.getInstance() == null ? null : PrisonShakedown.getInstance().getLogger();
+        if (logger == null) return;
+        if ((wgRegion == null && ids.length == 0) || owners.length == 0) {
+            logger.warning("ARM region class " + type.getName() + " has no usable region ID or owner getter; "
+                    + "its regions cannot be resolved. Found: " + found);
+        } else {
+            logger.info("ARM region class " + type.getSimpleName() + " getters: " + found);
+        }
+    }
+
+    static ArmAccessors of(Object region) {
+        return CACHE.get(region.getClass());
+    }
+
+    String regionId(Object region) {
+        if (wgRegion != null) {
+            Object wg = invoke(wgRegion, region);
+            if (wg != null) {
+                MethodHandle getId = WG_ID.get(wg.getClass());
+                if (getId != null && invoke(getId, wg) instanceof String s) return s;
+            }
+        }
+        for (MethodHandle getter : ids) {
+            if (invoke(getter, region) instanceof String s) return s;
+        }
+        return null;
+    }
+
+    UUID owner(Object region) {
+        return firstUser(owners, region);
+    }
+
+    UUID renter(Object region) {
+        return firstUser(renters, region);
+    }
+
+    /**
+     * Adds the users of every member-like collection of the region to the set.
+     */
+    void members(Object region, Set<UUID> into) {
+        for (MethodHandle getter : members) {
+            if (invoke(getter, region) instanceof Iterable<?> users) {
+                for (Object user : users) {
+                    UUID uuid = toUuid(user);
+                    if (uuid != null) into.add(uuid);
+                }
+            }
+        }
+    }
+
+    String world(Object region) {
+        for (MethodHandle getter : worlds) {
+            Object world = invoke(getter, region);
+            if (world instanceof World w) return w.getName();
+            if (world instanceof String s) return s;
+        }
+        return null;
+    }
+
+    private static UUID firstUser(MethodHandle[] getters, Object region) {
+        for (MethodHandle getter : getters) {
+            Object value = invoke(getter, region);
+            if (value instanceof Iterable<?> users) {
+                for (Object user : users) {
+                    UUID uuid = toUuid(user);
+                    if (uuid != null) return uuid;
+                }
+            } else {
+                UUID uuid = toUuid(value);
+                if (uuid != null) return uuid;
+            }
+        }
+        return null;
+    }
+
+    private static UUID toUuid(Object user) {
+        if (user instanceof UUID u) return u;
+        if (user instanceof OfflinePlayer op) return op.getUniqueId();
+        if (user instanceof String s && !s.isEmpty()) return Bukkit.getOfflinePlayer(s).getUniqueId();
+        return null;
+    }
+
+    private static Object invoke(MethodHandle getter, Object target) {
+        try {
+            return (Object) getter.invokeExact(target);
+        } catch (Throwable t) {
+            // The getter exists but failed on this region; treat like an unset value
+            return null;
+        }
+    }
+
+    private static MethodHandle[] findAll(Class<?> type, String[] names, List<String> found) {
+        List<MethodHandle> handles = new ArrayList<>(names.length);
+        for (String name : names) {
+            MethodHandle handle = find(type, name);
+            if (handle != null) {
+                handles.add(handle);
+                found.add(name);
+            }
+        }
+        return handles.toArray(new MethodHandle[0]);
+    }
+
+    /**
+     * Binds a public no-argument instance getter as {@code (Object)Object},
+     * or returns null if the class has none by that name.
+     */
+    private static MethodHandle find(Class<?> type, String name) {
+        for (Method method : type.getMethods()) {
+            if (!method.getName().equals(name) || method.getParameterCount() != 0
+                    || Modifier.isStatic(method.getModifiers()) || method.getReturnType() == void.class) {
+                continue;
+            }
+            try {
+                // Public methods of non-public implementation classes need the access override
+                method.trySetAccessible();
+                return MethodHandles.lookup().unreflect(method).asType(GETTER);
+            } catch (IllegalAccessException ex) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,366 @@
+package dev.lsdmc.Shakedown.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Reverse index over AdvancedRegionMarket regions: player UUID to the
+ * regions they own, rent or are a member of, and region ID to the world and
+ * users of the region. Without it every player-targeted command walks every
+ * WorldGuard region of every world with several reflective calls each.
+ * <p>
+ * The ARM regions are listed on the main thread, resolved on a background
+ * thread and the finished tables are swapped in whole. ARM events keep the
+ * index current between builds; the periodic rebuild covers changes ARM
+ * does not announce, such as expiring rents. Reads are lock free and safe
+ * from any thread. Region IDs are keyed case-insensitively; if the same ID
+ * exists in several worlds the last one listed wins.
+ */
+public final class ArmRegionIndex implements Listener {
+    // ARM events that change who owns, rents or is a member of a region.
+    // Looked up by name since they differ between ARM versions.
+    private static final String[] EVENTS = {
+            "net.alex9849.arm.events.BuyRegionEvent",
+            "net.alex9849.arm.events.UnsellRegionEvent",
+            "net.alex9849.arm.events.ResetRegionEvent",
+            "net.alex9849.arm.events.RestoreRegionEvent",
+            "net.alex9849.arm.events.ExtendRegionEvent",
+            "net.alex9849.arm.events.AddMemberEvent",
+            "net.alex9849.arm.events.RemoveMemberEvent",
+            "net.alex9849.arm.events.RemoveRegionEvent"
+    };
+    private static final String REMOVE_EVENT = "RemoveRegionEvent";
+
+    /**
+     * Users of one ARM region at the time it was indexed.
+     */
+    public record Entry(String id, String world, UUID owner, UUID renter, Set<UUID> members) {
+
+        /**
+         * @return the owner, else the renter, else any member
+         */
+        public Optional<UUID> primaryUser() {
+            if (owner != null) return Optional.of(owner);
+            if (renter != null) return Optional.of(renter);
+            return members.isEmpty() ? Optional.empty() : Optional.of(members.iterator().next());
+        }
+
+        /**
+         * @return 0 if the player owns the region, 1 if they rent it, 2 if they are a member
+         */
+        int rank(UUID player) {
+            if (player.equals(owner)) return 0;
+            if (player.equals(renter)) return 1;
+            return 2;
+        }
+    }
+
+    /**
+     * An ARM region listed on the main thread, with its world if known
+     * without reflection.
+     */
+    record Source(Object region, String world) {
+    }
+
+    private record Change(Object region, boolean removed) {
+    }
+
+    private static final class Tables {
+        private final Map<String, Entry> regions = new ConcurrentHashMap<>();
+        private final Map<UUID, Set<String>> users = new ConcurrentHashMap<>();
+
+        void put(Entry entry) {
+            String key = key(entry.id());
+            Entry old = regions.put(key, entry);
+            if (old != null) unlink(key, old);
+            link(key, entry.owner());
+            link(key, entry.renter());
+            for (UUID member : entry.members()) {
+                link(key, member);
+            }
+        }
+
+        void remove(String key) {
+            Entry old = regions.remove(key);
+            if (old != null) unlink(key, old);
+        }
+
+        private void link(String key, UUID user) {
+            if (user != null) users.computeIfAbsent(user, k -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+
+        private void unlink(String key, Entry entry) {
+            unlink(key, entry.owner());
+            unlink(key, entry.renter());
+            for (UUID member : entry.members()) {
+                unlink(key, member);
+            }
+        }
+
+        private void unlink(String key, UUID user) {
+            if (user == null) return;
+            users.computeIfPresent(user, (k, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    private final Plugin plugin;
+    // Null until the first build completes; lookups fall back to scanning until then
+    private volatile Tables tables;
+    private volatile boolean enabled;
+    // Bumped on every change; only written on the main thread
+    private volatile long version;
+    private BukkitTask rebuildTask;
+    private boolean eventsRegistered;
+    // Set while a build runs; regions changed meanwhile are re-read after the swap
+    private List<Change> changedDuringBuild;
+    // Bumped by stop(), so a build that was running at the time discards its result
+    private long generation;
+
+    public ArmRegionIndex(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * (Re)starts the index with a fresh build. Called on enable and reload.
+     *
+     * @param enabled         false routes every lookup back to the full scans
+     * @param rebuildInterval delay between periodic rebuilds; zero disables them
+     */
+    public void start(boolean enabled, Duration rebuildInterval) {
+        stop();
+        this.enabled = enabled;
+        if (!enabled) return;
+        registerEvents();
+        RegionUtils.setArmIndex(this);
+        rebuild();
+        if (!rebuildInterval.isZero() && !rebuildInterval.isNegative()) {
+            long ticks = Math.max(20, rebuildInterval.toMillis() / 50);
+            rebuildTask = Bukkit.getScheduler().runTaskTimer(plugin, this::rebuild, ticks, ticks);
+        }
+    }
+
+    /**
+     * Stops periodic rebuilds and detaches the index from {@link RegionUtils}.
+     * A build still running is abandoned, so a restart can build right away.
+     */
+    public void stop() {
+        enabled = false;
+        generation++;
+        changedDuringBuild = null;
+        if (rebuildTask != null) {
+            rebuildTask.cancel();
+            rebuildTask = null;
+        }
+        RegionUtils.setArmIndex(null);
+        tables = null;
+        version++;
+    }
+
+    /**
+     * @return whether a build has completed and lookups can be answered from the index
+     */
+    public boolean isReady() {
+        return tables != null;
+    }
+
+    /**
+     * @return a counter that changes whenever indexed regions are added, changed or removed
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Rebuilds the whole index. Must be called on the main thread. If a
+     * build is already running it is left alone and the returned future
+     * fails with an {@link IllegalStateException}; so does the future of a
+     * build abandoned by {@link #stop()}.
+     *
+     * @return a future completed on the main thread with the number of indexed regions
+     */
+    public CompletableFuture<Integer> rebuild() {
+        CompletableFuture<Integer> done = new CompletableFuture<>();
+        if (!enabled) {
+            done.complete(0);
+            return done;
+        }
+        if (changedDuringBuild != null) {
+            done.completeExceptionally(new IllegalStateException("A rebuild is already running"));
+            return done;
+        }
+        long start = System.nanoTime();
+        long build = generation;
+        List<Source> sources = RegionUtils.listArmRegions();
+        changedDuringBuild = new ArrayList<>();
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            Tables built = new Tables();
+            for (Source source : sources) {
+                try {
+                    Entry entry = RegionUtils.describeArmRegion(source.region(), source.world());
+                    if (entry != null) built.put(entry);
+                } catch (Throwable t) {
+                    Debug.warn("Skipping ARM region while indexing: {}", t.toString());
+                }
+            }
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (build != generation) {
+                    done.completeExceptionally(new IllegalStateException("The index was restarted during the rebuild"));
+                    return;
+                }
+                List<Change> changed = changedDuringBuild;
+                changedDuringBuild = null;
+                if (!enabled) {
+                    done.complete(0);
+                    return;
+                }
+                tables = built;
+                version++;
+                for (Change change : changed) {
+                    refresh(change.region(), change.removed());
+                }
+                Debug.info("ARM region index built: {} regions, {} users in {} ms", built.regions.size(),
+                        built.users.size(), (System.nanoTime() - start) / 1_000_000);
+                done.complete(built.regions.size());
+            });
+        });
+        return done;
+    }
+
+    /**
+     * @return the indexed region with the given ID, or empty if unknown or not built yet
+     */
+    public Optional<Entry> get(String regionId) {
+        Tables current = tables;
+        if (current == null || regionId == null) return Optional.empty();
+        return Optional.ofNullable(current.regions.get(key(regionId)));
+    }
+
+    /**
+     * Lists the regions the player owns, rents or is a member of: owned
+     * regions first, then rented, then memberships, each sorted by ID.
+     */
+    public List<String> regionsOf(UUID player) {
+        Tables current = tables;
+        if (current == null) return Collections.emptyList();
+        Set<String> keys = current.users.get(player);
+        if (keys == null) return Collections.emptyList();
+        List<Entry> entries = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            Entry entry = current.regions.get(key);
+            if (entry != null) entries.add(entry);
+        }
+        entries.sort(Comparator.<Entry>comparingInt(e -> e.rank(player)).thenComparing(Entry::id));
+        List<String> ids = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            ids.add(entry.id());
+        }
+        return ids;
+    }
+
+    /**
+     * @return the IDs of all indexed regions
+     */
+    public Collection<String> regionIds() {
+        Tables current = tables;
+        if (current == null) return Collections.emptyList();
+        List<String> ids = new ArrayList<>(current.regions.size());
+        for (Entry entry : current.regions.values()) {
+            ids.add(entry.id());
+        }
+        return ids;
+    }
+
+    /**
+     * @return a copy of all indexed regions
+     */
+    public List<Entry> entries() {
+        Tables current = tables;
+        return current == null ? Collections.emptyList() : new ArrayList<>(current.regions.values());
+    }
+
+    private void registerEvents() {
+        if (eventsRegistered) return;
+        eventsRegistered = true;
+        List<String> registered = new ArrayList<>();
+        for (String name : EVENTS) {
+            Class<? extends Event> type;
+            try {
+                type = Class.forName(name).asSubclass(Event.class);
+            } catch (ClassNotFoundException | ClassCastException | LinkageError ex) {
+                continue;
+            }
+            Bukkit.getPluginManager().registerEvent(type, this, EventPriority.MONITOR,
+                    (listener, event) -> onArmEvent(event), plugin, true);
+            registered.add(type.getSimpleName());
+        }
+        if (registered.isEmpty()) {
+            plugin.getLogger().warning("No AdvancedRegionMarket events found; the ARM region index is only "
+                    + "updated by periodic rebuilds.");
+        } else {
+            Debug.info("ARM region index listening to {}", registered);
+        }
+    }
+
+    private void onArmEvent(Event event) {
+        if (!enabled) return;
+        Object region;
+        try {
+            region = event.getClass().getMethod("getRegion").invoke(event);
+        } catch (ReflectiveOperationException ex) {
+            return;
+        }
+        if (region == null) return;
+        boolean removed = event.getClass().getSimpleName().equals(REMOVE_EVENT);
+        // ARM fires most events before it applies the change; read the region a tick later
+        Bukkit.getScheduler().runTask(plugin, () -> refresh(region, removed));
+    }
+
+    /**
+     * Re-reads one ARM region into the index. Main thread only.
+     */
+    private void refresh(Object region, boolean removed) {
+        if (!enabled) return;
+        if (changedDuringBuild != null) changedDuringBuild.add(new Change(region, removed));
+        Tables current = tables;
+        if (current == null) return;
+        try {
+            Entry entry = RegionUtils.describeArmRegion(region, null);
+            if (entry == null) return;
+            if (removed) {
+                current.remove(key(entry.id()));
+            } else {
+                current.put(entry);
+            }
+            version++;
+            Debug.info("ARM region index updated: id={}, removed={}", entry.id(), removed);
+        } catch (Throwable t) {
+            plugin.getLogger().log(Level.WARNING, "Could not update ARM region index", t);
+        }
+    }
+
+    private static String key(String regionId) {
+        return regionId.toLowerCase(Locale.ROOT);
+    }
+}
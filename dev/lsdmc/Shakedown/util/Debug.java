@@ -1,61 +1,209 @@
 package dev.lsdmc.Shakedown.util;
 
-import dev.lsdmc.Shakedown.PrisonShakedown;
 import dev.lsdmc.Shakedown.config.ConfigManager;
-import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.bukkit.Bukkit;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
 /**
- * Lightweight debug logger with MiniMessage colored output.
+ * Lightweight debug logger with MiniMessage colored output. The debug flags
+ * are a snapshot taken from the config on load and reload, so a disabled
+ * call costs a single volatile read. Messages are either built lazily from a
+ * {@link Supplier} or from a template whose {@code {}} placeholders are
+ * filled with the arguments; both only happen when debug is enabled.
+ * Templates take up to four arguments through fixed-arity overloads, so no
+ * varargs array is built before the check; longer messages use a supplier.
+ * MiniMessage parsing and console output run on a background thread.
  */
 public final class Debug {
     private static final MiniMessage MINI = MiniMessage.miniMessage();
+    private static final int QUEUE_CAPACITY = 4096;
+
+    private record Settings(boolean enabled, boolean verbose, boolean console, Logger logger) {
+    }
+
+    private record Entry(String markup, Throwable error) {
+    }
+
+    private static final Settings DISABLED = new Settings(false, false, false, null);
+    private static volatile Settings settings = DISABLED;
+    private static final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private static final AtomicLong dropped = new AtomicLong();
+    private static Thread writer;
 
     private Debug() {}
 
-    private static boolean enabled() {
-        ConfigManager cfg = new ConfigManager(PrisonShakedown.getInstance());
-        return cfg.isDebugEnabled();
+    /**
+     * Takes a new snapshot of the debug flags. Called on enable and reload.
+     */
+    public static synchronized void configure(ConfigManager config, Logger logger) {
+        settings = new Settings(config.isDebugEnabled(), config.isDebugVerbose(), config.isDebugConsole(), logger);
+        if (config.isDebugEnabled() && writer == null) {
+            writer = new Thread(Debug::drain, "Shakedown-Debug");
+            writer.setDaemon(true);
+            writer.start();
+        }
     }
 
-    private static boolean verbose() {
-        ConfigManager cfg = new ConfigManager(PrisonShakedown.getInstance());
-        return cfg.isDebugVerbose();
+    /**
+     * Disables logging, stops the background thread and writes whatever is
+     * still queued. Called on disable.
+     */
+    public static synchronized void shutdown() {
+        Settings last = settings;
+        settings = DISABLED;
+        if (writer != null) {
+            writer.interrupt();
+            try {
+                writer.join(2000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        }
+        Entry entry;
+        while ((entry = queue.poll()) != null) {
+            write(entry, last);
+        }
     }
 
-    private static boolean console() {
-        ConfigManager cfg = new ConfigManager(PrisonShakedown.getInstance());
-        return cfg.isDebugConsole();
+    public static boolean isEnabled() {
+        return settings.enabled;
     }
 
     public static void info(String msg) {
-        if (!enabled()) return;
-        log("<#06FFA5>[INFO]</#06FFA5> <#ADB5BD>" + msg + "</#ADB5BD>");
+        if (!settings.enabled) return;
+        enqueueInfo(msg);
+    }
+
+    public static void info(Supplier<String> msg) {
+        if (!settings.enabled) return;
+        enqueueInfo(msg.get());
+    }
+
+    public static void info(String template, Object arg) {
+        if (!settings.enabled) return;
+        enqueueInfo(format(template, arg));
+    }
+
+    public static void info(String template, Object arg1, Object arg2) {
+        if (!settings.enabled) return;
+        enqueueInfo(format(template, arg1, arg2));
+    }
+
+    public static void info(String template, Object arg1, Object arg2, Object arg3) {
+        if (!settings.enabled) return;
+        enqueueInfo(format(template, arg1, arg2, arg3));
+    }
+
+    public static void info(String template, Object arg1, Object arg2, Object arg3, Object arg4) {
+        if (!settings.enabled) return;
+        enqueueInfo(format(template, arg1, arg2, arg3, arg4));
     }
 
     public static void warn(String msg) {
-        if (!enabled()) return;
-        log("<#FF6B6B>[WARN]</#FF6B6B> <#ADB5BD>" + msg + "</#ADB5BD>");
+        if (!settings.enabled) return;
+        enqueueWarn(msg);
+    }
+
+    public static void warn(Supplier<String> msg) {
+        if (!settings.enabled) return;
+        enqueueWarn(msg.get());
+    }
+
+    public static void warn(String template, Object arg) {
+        if (!settings.enabled) return;
+        enqueueWarn(format(template, arg));
+    }
+
+    public static void warn(String template, Object arg1, Object arg2) {
+        if (!settings.enabled) return;
+        enqueueWarn(format(template, arg1, arg2));
+    }
+
+    public static void warn(String template, Object arg1, Object arg2, Object arg3) {
+        if (!settings.enabled) return;
+        enqueueWarn(format(template, arg1, arg2, arg3));
+    }
+
+    public static void warn(String template, Object arg1, Object arg2, Object arg3, Object arg4) {
+        if (!settings.enabled) return;
+        enqueueWarn(format(template, arg1, arg2, arg3, arg4));
     }
 
     public static void error(String msg, Throwable t) {
-        if (!enabled()) return;
+        Settings current = settings;
+        if (!current.enabled) return;
         String base = "<#FF6B6B>[ERROR]</#FF6B6B> <#ADB5BD>" + msg + "</#ADB5BD>";
-        if (verbose() && t != null) {
+        if (current.verbose && t != null) {
             base += " <gray>(" + t.getClass().getSimpleName() + ": " + t.getMessage() + ")</gray>";
         }
-        log(base);
-        if (verbose() && t != null) t.printStackTrace();
+        enqueue(new Entry(base, current.verbose ? t : null));
     }
 
-    private static void log(String mm) {
-        Component c = MINI.deserialize(mm);
-        Bukkit.getConsoleSender().sendMessage(c);
-        if (console()) {
-            PrisonShakedown.getInstance().getLogger().info(MINI.stripTags(mm));
+    private static void enqueueInfo(String msg) {
+        enqueue(new Entry("<#06FFA5>[INFO]</#06FFA5> <#ADB5BD>" + msg + "</#ADB5BD>", null));
+    }
+
+    private static void enqueueWarn(String msg) {
+        enqueue(new Entry("<#FF6B6B>[WARN]</#FF6B6B> <#ADB5BD>" + msg + "</#ADB5BD>", null));
+    }
+
+    private static void enqueue(Entry entry) {
+        // Never block the caller; a flood of debug output is dropped instead
+        if (!queue.offer(entry)) {
+            dropped.incrementAndGet();
         }
     }
-}
 
+    /**
+     * Replaces each {@code {}} in the template with the next argument.
+     */
+    private static String format(String template, Object... args) {
+        StringBuilder out = new StringBuilder(template.length() + 16 * args.length);
+        int from = 0;
+        for (Object arg : args) {
+            int at = template.indexOf("{}", from);
+            if (at < 0) break;
+            out.append(template, from, at).append(arg);
+            from = at + 2;
+        }
+        return out.append(template, from, template.length()).toString();
+    }
+
+    private static void drain() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Entry entry = queue.poll(1, TimeUnit.SECONDS);
+                if (entry != null) {
+                    write(entry, settings);
+                }
+                long lost = dropped.getAndSet(0);
+                if (lost > 0) {
+                    write(new Entry("<#FF6B6B>[WARN]</#FF6B6B> <#ADB5BD>" + lost
+                            + " debug messages dropped (queue full)</#ADB5BD>", null), settings);
+                }
+            }
+        } catch (InterruptedException ignored) {
+            // Shutting down; remaining entries are written by shutdown()
+        }
+    }
 
+    private static void write(Entry entry, Settings current) {
+        try {
+            Bukkit.getConsoleSender().sendMessage(MINI.deserialize(entry.markup));
+            if (current.console && current.logger != null) {
+                current.logger.info(MINI.stripTags(entry.markup));
+            }
+            if (entry.error != null) entry.error.printStackTrace();
+        } catch (Throwable ignored) {
+            // Logging must never take anything else down
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package dev.lsdmc.Shakedown.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable case-insensitive prefix index over a set of strings, kept as a
+ * sorted array of lowercased keys next to the original values. A lookup is
+ * one binary search for the first match followed by a walk over the
+ * matching run, so it never touches entries outside the prefix.
+ */
+public final class PrefixIndex {
+    private static final PrefixIndex EMPTY = new PrefixIndex(new String[0], new String[0]);
+
+    private final String[] keys;
+    private final String[] values;
+
+    private PrefixIndex(String[] keys, String[] values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    public static PrefixIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds an index of the given values. Duplicates (ignoring case) are
+     * kept once.
+     */
+    public static PrefixIndex of(Collection<String> source) {
+        String[][] pairs = new String[source.size()][];
+        int n = 0;
+        for (String value : source) {
+            pairs[n++] = new String[]{value.toLowerCase(Locale.ROOT), value};
+        }
+        // Sort by the lowercased key itself so the binary search sees the same order
+        Arrays.sort(pairs, 0, n, (a, b) -> a[0].compareTo(b[0]));
+        String[] keys = new String[n];
+        String[] values = new String[n];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            if (size > 0 && keys[size - 1].equals(pairs[i][0])) continue;
+            keys[size] = pairs[i][0];
+            values[size++] = pairs[i][1];
+        }
+        return new PrefixIndex(Arrays.copyOf(keys, size), Arrays.copyOf(values, size));
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Adds the values starting with the prefix, in order, until the output
+     * holds {@code limit} entries.
+     *
+     * @param prefix the typed prefix; case is ignored
+     */
+    public void collect(String prefix, int limit, List<String> into) {
+        String key = prefix.toLowerCase(Locale.ROOT);
+        int at = Arrays.binarySearch(keys, key);
+        if (at < 0) at = -at - 1;
+        for (int i = at; i < keys.length && into.size() < limit && keys[i].startsWith(key); i++) {
+            into.add(values[i]);
+        }
+    }
+}
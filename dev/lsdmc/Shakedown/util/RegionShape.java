@@ -0,0 +1,167 @@
+package dev.lsdmc.Shakedown.util;
+
+import com.sk89q.worldedit.math.BlockVector2;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The blocks of a WorldGuard region broken down into chunk columns. Only
+ * chunks that actually intersect the region shape are kept, and each chunk
+ * carries a mask of the 16x16 block columns inside the region, so polygonal
+ * and other non-rectangular regions are not walked through their whole
+ * bounding box. The Y range is clipped to the world's build height.
+ */
+public final class RegionShape {
+    private final World world;
+    private final ProtectedRegion region;
+    private final int minY;
+    private final int maxY;
+    private final List<ChunkColumns> chunks;
+    private final long columnCount;
+
+    private RegionShape(World world, ProtectedRegion region, int minY, int maxY, List<ChunkColumns> chunks) {
+        this.world = world;
+        this.region = region;
+        this.minY = minY;
+        this.maxY = maxY;
+        this.chunks = Collections.unmodifiableList(chunks);
+        long count = 0;
+        for (ChunkColumns chunk : chunks) {
+            count += chunk.columnCount();
+        }
+        this.columnCount = count;
+    }
+
+    /**
+     * Resolves the shape of a region in the given world. Cuboid regions take
+     * a fast path; other shapes test every column of their bounding box once
+     * through {@link ProtectedRegion#contains(BlockVector2)}.
+     */
+    public static RegionShape of(World world, ProtectedRegion region) {
+        int minX = region.getMinimumPoint().getBlockX();
+        int minZ = region.getMinimumPoint().getBlockZ();
+        int maxX = region.getMaximumPoint().getBlockX();
+        int maxZ = region.getMaximumPoint().getBlockZ();
+        int minY = Math.max(region.getMinimumPoint().getBlockY(), world.getMinHeight());
+        int maxY = Math.min(region.getMaximumPoint().getBlockY(), world.getMaxHeight() - 1);
+        boolean cuboid = region instanceof ProtectedCuboidRegion;
+
+        List<ChunkColumns> chunks = new ArrayList<>();
+        for (int cx = minX >> 4; cx <= maxX >> 4; cx++) {
+            for (int cz = minZ >> 4; cz <= maxZ >> 4; cz++) {
+                long[] mask = new long[4];
+                boolean any = false;
+                int fromX = Math.max(minX, cx << 4), toX = Math.min(maxX, (cx << 4) + 15);
+                int fromZ = Math.max(minZ, cz << 4), toZ = Math.min(maxZ, (cz << 4) + 15);
+                for (int x = fromX; x <= toX; x++) {
+                    for (int z = fromZ; z <= toZ; z++) {
+                        if (cuboid || region.contains(BlockVector2.at(x, z))) {
+                            int index = ((z & 15) << 4) | (x & 15);
+                            mask[index >> 6] |= 1L << (index & 63);
+                            any = true;
+                        }
+                    }
+                }
+                if (any) {
+                    chunks.add(new ChunkColumns(cx, cz, mask));
+                }
+            }
+        }
+        RegionShape shape = new RegionShape(world, region, minY, maxY, chunks);
+        Debug.info(() -> "Region shape id=" + region.getId() + ": chunks=" + chunks.size() + ", columns="
+                + shape.columnCount + ", y=" + minY + ".." + maxY);
+        return shape;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public ProtectedRegion getRegion() {
+        return region;
+    }
+
+    public int getMinY() {
+        return minY;
+    }
+
+    public int getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * @return the chunks intersecting the region, each with its column mask
+     */
+    public List<ChunkColumns> getChunks() {
+        return chunks;
+    }
+
+    /**
+     * @return the number of blocks actually inside the region and the world
+     */
+    public long getVolume() {
+        return maxY < minY ? 0 : columnCount * (maxY - minY + 1);
+    }
+
+    /**
+     * @return the number of region blocks inside the given chunk
+     */
+    public long getVolume(ChunkColumns chunk) {
+        return maxY < minY ? 0 : (long) chunk.columnCount() * (maxY - minY + 1);
+    }
+
+    /**
+     * The block columns of one chunk that lie inside the region. Columns are
+     * indexed as {@code (localZ << 4) | localX}.
+     */
+    public static final class ChunkColumns {
+        private final int chunkX;
+        private final int chunkZ;
+        private final long[] mask;
+
+        ChunkColumns(int chunkX, int chunkZ, long[] mask) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.mask = mask;
+        }
+
+        public int getChunkX() {
+            return chunkX;
+        }
+
+        public int getChunkZ() {
+            return chunkZ;
+        }
+
+        public boolean contains(int localX, int localZ) {
+            int index = (localZ << 4) | localX;
+            return (mask[index >> 6] & (1L << (index & 63))) != 0;
+        }
+
+        /**
+         * Returns the first column index at or after {@code from} that lies
+         * inside the region, or -1 if there is none.
+         */
+        public int nextColumn(int from) {
+            for (int word = from >> 6; word < 4; word++) {
+                long bits = mask[word];
+                if (word == from >> 6) {
+                    bits &= -1L << (from & 63);
+                }
+                if (bits != 0) {
+                    return (word << 6) | Long.numberOfTrailingZeros(bits);
+                }
+            }
+            return -1;
+        }
+
+        public int columnCount() {
+            return Long.bitCount(mask[0]) + Long.bitCount(mask[1]) + Long.bitCount(mask[2]) + Long.bitCount(mask[3]);
+        }
+    }
+}
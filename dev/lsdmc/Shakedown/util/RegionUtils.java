@@ -26,8 +26,18 @@ import java.util.Set;
  * containers to avoid null pointer exceptions.
  */
 public final class RegionUtils {
+    private static volatile ArmRegionIndex armIndex;
+
     private RegionUtils() {}
 
+    /**
+     * Routes ARM lookups through the given index once it has been built.
+     * Until then, and when set to null, lookups scan the regions directly.
+     */
+    public static void setArmIndex(ArmRegionIndex index) {
+        armIndex = index;
+    }
+
     /**
      * Retrieves a WorldGuard region by its ID within a given world.
      *
@@ -43,7 +53,7 @@ public final class RegionUtils {
         }
         ProtectedRegion pr = manager.getRegion(id);
         if (pr != null) {
-            dev.lsdmc.Shakedown.util.Debug.info("WG region found in world=" + world.getName() + ", id=" + id);
+            Debug.info("WG region found in world={}, id={}", world.getName(), id);
         }
         return Optional.ofNullable(pr);
     }
@@ -55,10 +65,20 @@ public final class RegionUtils {
      * @return an optional containing the region if found
      */
     public static Optional<ProtectedRegion> findWorldGuardRegionByIdAnyWorld(String id) {
+        ArmRegionIndex index = armIndex;
+        if (index != null) {
+            Optional<ArmRegionIndex.Entry> entry = index.get(id);
+            World world = entry.map(e -> Bukkit.getWorld(e.world())).orElse(null);
+            if (world != null) {
+                Optional<ProtectedRegion> region = getWorldGuardRegionById(world, id);
+                if (region.isPresent()) return region;
+            }
+        }
+        // Not an indexed ARM region (or the index is stale): try every world
         for (World world : Bukkit.getWorlds()) {
             Optional<ProtectedRegion> region = getWorldGuardRegionById(world, id);
             if (region.isPresent()) {
-                dev.lsdmc.Shakedown.util.Debug.info("WG region found across worlds: id=" + id + ", world=" + world.getName());
+                Debug.info("WG region found across worlds: id={}, world={}", id, world.getName());
                 return region;
             }
         }
@@ -107,7 +127,7 @@ public final class RegionUtils {
                 net.alex9849.arm.regions.Region region = manager.getRegionByNameAndWorld(regionId, world.getName());
                 if (region != null) {
                     UUID owner = region.getOwner();
-                    dev.lsdmc.Shakedown.util.Debug.info("ARM owner lookup: id=" + regionId + ", world=" + world.getName() + ", owner=" + owner);
+                    Debug.info("ARM owner lookup: id={}, world={}, owner={}", regionId, world.getName(), owner);
                     return Optional.ofNullable(owner);
                 }
             }
@@ -132,6 +152,10 @@ public final class RegionUtils {
      * Returns a list of ARM-managed region IDs if ARM is present.
      */
     public static List<String> listArmRegionIds() {
+        ArmRegionIndex index = armIndex;
+        if (index != null && index.isReady()) {
+            return new ArrayList<>(index.regionIds());
+        }
         List<String> ids = new ArrayList<>();
         try {
             AdvancedRegionMarket arm = getArm();
@@ -157,21 +181,30 @@ public final class RegionUtils {
     }
 
     /**
-     * Lists ARM region IDs where the specified player is the owner, renter, or a primary user.
+     * Lists ARM region IDs where the specified player is the owner, renter, or a member: owned
+     * regions first, then rented, then memberships, each sorted by ID.
      */
     public static List<String> listArmRegionsOwnedBy(UUID playerUuid) {
+        ArmRegionIndex index = armIndex;
+        if (index != null && index.isReady()) {
+            List<String> ids = index.regionsOf(playerUuid);
+            Debug.info("ARM regions (indexed) for uuid={}: {}", playerUuid, ids.size());
+            return ids;
+        }
         List<String> ids = new ArrayList<>();
         try {
             AdvancedRegionMarket arm = getArm();
             if (arm == null) return ids;
             net.alex9849.arm.regions.RegionManager manager = arm.getRegionManager();
             if (manager == null) return ids;
-            java.util.Set<String> uniqueIds = new java.util.HashSet<>();
+            // Same order as the index: owned, then rented, then memberships, each sorted by ID
+            Set<String> owned = new java.util.TreeSet<>();
+            Set<String> rented = new java.util.TreeSet<>();
+            Set<String> memberOf = new java.util.TreeSet<>();
             // Include owned regions via direct API
-            java.util.List<net.alex9849.arm.regions.Region> owned = manager.getRegionsByOwner(playerUuid);
-            for (net.alex9849.arm.regions.Region region : owned) {
+            for (net.alex9849.arm.regions.Region region : manager.getRegionsByOwner(playerUuid)) {
                 String id = region.getRegion().getId();
-                if (id != null) uniqueIds.add(id);
+                if (id != null) owned.add(id);
             }
             // Include rented/tenant/member regions by scanning WG regions per world
             for (World world : Bukkit.getWorlds()) {
@@ -185,17 +218,20 @@ public final class RegionUtils {
                     if (id == null) continue;
                     // Owner
                     UUID owner = armRegion.getOwner();
-                    if (playerUuid.equals(owner)) { uniqueIds.add(id); continue; }
+                    if (playerUuid.equals(owner)) { owned.add(id); continue; }
                     // Renter/tenant via reflective helpers
                     UUID renter = tryGetRenterUuid(armRegion);
-                    if (playerUuid.equals(renter)) { uniqueIds.add(id); continue; }
+                    if (playerUuid.equals(renter)) { rented.add(id); continue; }
                     // Members/Users
                     Set<UUID> members = tryGetMemberUuids(armRegion);
-                    if (members.contains(playerUuid)) uniqueIds.add(id);
+                    if (members.contains(playerUuid)) memberOf.add(id);
                 }
             }
+            Set<String> uniqueIds = new java.util.LinkedHashSet<>(owned);
+            uniqueIds.addAll(rented);
+            uniqueIds.addAll(memberOf);
             ids = new java.util.ArrayList<>(uniqueIds);
-            dev.lsdmc.Shakedown.util.Debug.info("ARM regions (owned/rented/members) for uuid=" + playerUuid + ": " + ids.size());
+            Debug.info("ARM regions (owned/rented/members) for uuid={}: {}", playerUuid, ids.size());
         } catch (Throwable ignored) {}
         return ids;
     }
@@ -204,6 +240,10 @@ public final class RegionUtils {
      * Attempts to resolve a region's primary user (owner or renter/tenant) by region ID.
      */
     public static Optional<UUID> getRegionPrimaryUser(String regionId) {
+        ArmRegionIndex index = armIndex;
+        if (index != null && index.isReady()) {
+            return index.get(regionId).flatMap(ArmRegionIndex.Entry::primaryUser);
+        }
         try {
             AdvancedRegionMarket arm = getArm();
             if (arm == null) return Optional.empty();
@@ -227,6 +267,73 @@ public final class RegionUtils {
         }
     }
 
+    /**
+     * Lists every ARM region with its world and users. Answered from the
+     * ARM region index when it is built, otherwise read from ARM directly,
+     * which must happen on the main thread.
+     */
+    public static List<ArmRegionIndex.Entry> listArmRegionEntries() {
+        ArmRegionIndex index = armIndex;
+        if (index != null && index.isReady()) {
+            return index.entries();
+        }
+        List<ArmRegionIndex.Entry> entries = new ArrayList<>();
+        for (ArmRegionIndex.Source source : listArmRegions()) {
+            ArmRegionIndex.Entry entry = describeArmRegion(source.region(), source.world());
+            if (entry != null) entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * Lists every ARM region for {@link ArmRegionIndex}. Uses the ARM region
+     * manager directly when it can be iterated, otherwise looks up each
+     * WorldGuard region by name. Must run on the main thread.
+     */
+    static List<ArmRegionIndex.Source> listArmRegions() {
+        List<ArmRegionIndex.Source> sources = new ArrayList<>();
+        try {
+            AdvancedRegionMarket arm = getArm();
+            if (arm == null) return sources;
+            net.alex9849.arm.regions.RegionManager manager = arm.getRegionManager();
+            if (manager == null) return sources;
+            if (manager instanceof Iterable<?> regions) {
+                for (Object region : regions) {
+                    sources.add(new ArmRegionIndex.Source(region, null));
+                }
+                return sources;
+            }
+            for (World world : Bukkit.getWorlds()) {
+                RegionContainer container = WorldGuard.getInstance().getPlatform().getRegionContainer();
+                RegionManager wg = container.get(BukkitAdapter.adapt(world));
+                if (wg == null) continue;
+                for (String id : wg.getRegions().keySet()) {
+                    net.alex9849.arm.regions.Region armRegion = manager.getRegionByNameAndWorld(id, world.getName());
+                    if (armRegion != null) sources.add(new ArmRegionIndex.Source(armRegion, world.getName()));
+                }
+            }
+        } catch (Throwable t) {
+            Debug.error("Could not list ARM regions", t);
+        }
+        return sources;
+    }
+
+    /**
+     * Reads the ID, world and users of an ARM region. Safe to call off the
+     * main thread as it only reads region state.
+     *
+     * @param world the region's world if already known, else it is read from the region
+     * @return the entry, or null if the region has no ID or world
+     */
+    static ArmRegionIndex.Entry describeArmRegion(Object armRegion, String world) {
+        String id = tryGetRegionId(armRegion);
+        if (world == null) world = tryGetWorldName(armRegion);
+        if (id == null || world == null) return null;
+        UUID owner = armRegion instanceof net.alex9849.arm.regions.Region r ? r.getOwner() : tryGetOwnerUuid(armRegion);
+        return new ArmRegionIndex.Entry(id, world, owner, tryGetRenterUuid(armRegion),
+                Set.copyOf(tryGetMemberUuids(armRegion)));
+    }
+
     private static AdvancedRegionMarket getArm() {
         org.bukkit.plugin.Plugin plugin = Bukkit.getPluginManager().getPlugin("AdvancedRegionMarket");
         if (plugin instanceof AdvancedRegionMarket arm) {
@@ -245,110 +352,27 @@ public final class RegionUtils {
                 return r.getRegion().getId();
             } catch (Throwable ignored) {}
         }
-        try {
-            // Preferred: region.getRegion().getId()
-            Object wgRegion = armRegion.getClass().getMethod("getRegion").invoke(armRegion);
-            if (wgRegion != null) {
-                Object id = wgRegion.getClass().getMethod("getId").invoke(wgRegion);
-                if (id instanceof String s) return s;
-            }
-        } catch (Throwable ignored) {}
-        try {
-            // Fallback: region.getRegionId()
-            Object id = armRegion.getClass().getMethod("getRegionId").invoke(armRegion);
-            if (id instanceof String s) return s;
-        } catch (Throwable ignored) {}
-        try {
-            // Fallback: region.getName()
-            Object id = armRegion.getClass().getMethod("getName").invoke(armRegion);
-            if (id instanceof String s) return s;
-        } catch (Throwable ignored) {}
-        return null;
+        return ArmAccessors.of(armRegion).regionId(armRegion);
+    }
+
+    private static String tryGetWorldName(Object armRegion) {
+        return ArmAccessors.of(armRegion).world(armRegion);
     }
 
     private static UUID tryGetOwnerUuid(Object armRegion) {
-        try {
-            // Common: region.getOwner() -> UUID
-            Object owner = armRegion.getClass().getMethod("getOwner").invoke(armRegion);
-            if (owner instanceof UUID u) return u;
-        } catch (Throwable ignored) {}
-        try {
-            // Alternate: region.getOwnerUUID()
-            Object owner = armRegion.getClass().getMethod("getOwnerUUID").invoke(armRegion);
-            if (owner instanceof UUID u) return u;
-        } catch (Throwable ignored) {}
-        try {
-            // Alternate: region.getOwnerName() -> resolve
-            Object name = armRegion.getClass().getMethod("getOwnerName").invoke(armRegion);
-            if (name instanceof String s && !s.isEmpty()) {
-                return Bukkit.getOfflinePlayer(s).getUniqueId();
-            }
-        } catch (Throwable ignored) {}
-        try {
-            // Alternate: region.getOwnerPlayer() -> OfflinePlayer
-            Object p = armRegion.getClass().getMethod("getOwnerPlayer").invoke(armRegion);
-            if (p instanceof org.bukkit.OfflinePlayer op) return op.getUniqueId();
-        } catch (Throwable ignored) {}
-        try {
-            // Alternate: region.getOwners() -> Collection<UUID>
-            Object owners = armRegion.getClass().getMethod("getOwners").invoke(armRegion);
-            if (owners instanceof Iterable<?> iter) {
-                for (Object o : iter) {
-                    if (o instanceof UUID u) return u;
-                    if (o instanceof org.bukkit.OfflinePlayer op) return op.getUniqueId();
-                    if (o instanceof String s && !s.isEmpty()) return Bukkit.getOfflinePlayer(s).getUniqueId();
-                }
-            }
-        } catch (Throwable ignored) {}
-        return null;
+        return ArmAccessors.of(armRegion).owner(armRegion);
     }
 
     private static UUID tryGetRenterUuid(Object armRegion) {
-        try {
-            Object renter = armRegion.getClass().getMethod("getRenter").invoke(armRegion);
-            if (renter instanceof UUID u) return u;
-            if (renter instanceof org.bukkit.OfflinePlayer op) return op.getUniqueId();
-        } catch (Throwable ignored) {}
-        try {
-            Object tenant = armRegion.getClass().getMethod("getTenant").invoke(armRegion);
-            if (tenant instanceof UUID u) return u;
-            if (tenant instanceof org.bukkit.OfflinePlayer op) return op.getUniqueId();
-        } catch (Throwable ignored) {}
-        try {
-            Object lessee = armRegion.getClass().getMethod("getLessee").invoke(armRegion);
-            if (lessee instanceof UUID u) return u;
-            if (lessee instanceof org.bukkit.OfflinePlayer op) return op.getUniqueId();
-        } catch (Throwable ignored) {}
-        return null;
+        return ArmAccessors.of(armRegion).renter(armRegion);
     }
 
     private static Set<UUID> tryGetMemberUuids(Object armRegion) {
         Set<UUID> set = new HashSet<>();
-        try {
-            Object tenants = armRegion.getClass().getMethod("getTenants").invoke(armRegion);
-            addUserLikeToSet(set, tenants);
-        } catch (Throwable ignored) {}
-        try {
-            Object members = armRegion.getClass().getMethod("getMembers").invoke(armRegion);
-            addUserLikeToSet(set, members);
-        } catch (Throwable ignored) {}
-        try {
-            Object users = armRegion.getClass().getMethod("getUsers").invoke(armRegion);
-            addUserLikeToSet(set, users);
-        } catch (Throwable ignored) {}
+        ArmAccessors.of(armRegion).members(armRegion, set);
         return set;
     }
 
-    private static void addUserLikeToSet(Set<UUID> set, Object iterable) {
-        if (iterable instanceof Iterable<?> iter) {
-            for (Object o : iter) {
-                if (o instanceof UUID u) set.add(u);
-                else if (o instanceof org.bukkit.OfflinePlayer op) set.add(op.getUniqueId());
-                else if (o instanceof String s && !s.isEmpty()) set.add(Bukkit.getOfflinePlayer(s).getUniqueId());
-            }
-        }
-    }
-
     private static boolean isRegionOwnedBy(Object region, UUID playerUuid) {
         UUID owner = tryGetOwnerUuid(region);
         if (playerUuid.equals(owner)) return true;
@@ -0,0 +1,81 @@
+package dev.lsdmc.Shakedown.bench;
+
+import dev.lsdmc.Shakedown.config.ConfigManager;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+
+import java.util.logging.Logger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Headless stand-in for the Paper server used by the benchmarks. Bukkit only
+ * accepts one server per JVM, so the mock is installed once and shared;
+ * benchmarks add the stubs they need on top. Mocks are created
+ * {@code stubOnly} so invocations are not recorded, which keeps their
+ * overhead small and constant between before/after runs.
+ */
+public final class BenchServer {
+    private static final Logger LOGGER = Logger.getLogger("Shakedown-Bench");
+    private static Server server;
+    private static PluginManager pluginManager;
+
+    private BenchServer() {}
+
+    /**
+     * @return the installed server mock, installing it on first use
+     */
+    public static synchronized Server get() {
+        if (server == null) {
+            server = stub(Server.class);
+            pluginManager = stub(PluginManager.class);
+            when(server.getLogger()).thenReturn(LOGGER);
+            when(server.getPluginManager()).thenReturn(pluginManager);
+            // Every material has a single state; enough for PaletteProbe to enumerate
+            when(server.createBlockData(any(Material.class))).thenAnswer(invocation -> {
+                Material material = invocation.getArgument(0);
+                BlockData data = stub(BlockData.class);
+                when(data.getMaterial()).thenReturn(material);
+                when(data.getAsString()).thenReturn(material.getKey().toString());
+                return data;
+            });
+            Bukkit.setServer(server);
+        }
+        return server;
+    }
+
+    public static PluginManager pluginManager() {
+        get();
+        return pluginManager;
+    }
+
+    /**
+     * Builds a {@link ConfigManager} from an in-memory YAML document, the same
+     * way the plugin reads {@code config.yml}.
+     */
+    public static ConfigManager config(String yaml) {
+        get();
+        YamlConfiguration config = new YamlConfiguration();
+        try {
+            config.loadFromString(yaml);
+        } catch (Exception ex) {
+            throw new IllegalArgumentException("Invalid benchmark config", ex);
+        }
+        Plugin plugin = stub(Plugin.class);
+        when(plugin.getConfig()).thenReturn(config);
+        when(plugin.getLogger()).thenReturn(LOGGER);
+        return new ConfigManager(plugin);
+    }
+
+    public static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+}
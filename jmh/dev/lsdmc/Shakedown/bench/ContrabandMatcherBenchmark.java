@@ -0,0 +1,133 @@
+package dev.lsdmc.Shakedown.bench;
+
+import dev.lsdmc.Shakedown.shakedown.ContrabandMatcher;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link ContrabandMatcher#isContraband(ItemStack)} for the item shapes a
+ * shakedown meets in container inventories: plain contraband materials,
+ * plain harmless items, items whose custom model data is listed, and items
+ * with meta that match nothing (the slowest path, every rule is tried).
+ * Each invocation checks a batch of items so the loop is not folded away.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContrabandMatcherBenchmark {
+    private static final int BATCH = 256;
+    private static final Material[] CONTRABAND = {
+            Material.TNT, Material.LAVA_BUCKET, Material.FLINT_AND_STEEL, Material.ENDER_PEARL,
+            Material.DIAMOND_SWORD, Material.IRON_SWORD, Material.BOW, Material.CROSSBOW,
+            Material.SUGAR, Material.POTION, Material.SPLASH_POTION, Material.FIRE_CHARGE
+    };
+    private static final Material[] HARMLESS = {
+            Material.BREAD, Material.COBBLESTONE, Material.OAK_PLANKS, Material.TORCH,
+            Material.PAPER, Material.BOOK, Material.COOKED_BEEF, Material.WHITE_WOOL
+    };
+
+    private ContrabandMatcher matcher;
+    private ItemStack[] materialHits;
+    private ItemStack[] materialMisses;
+    private ItemStack[] customModelDataHits;
+    private ItemStack[] metaMisses;
+
+    @Setup
+    public void setup() {
+        StringBuilder yaml = new StringBuilder("contraband:\n  materials:\n");
+        for (Material material : CONTRABAND) {
+            yaml.append("    - ").append(material.name()).append('\n');
+        }
+        yaml.append("  custom-model-data:\n");
+        for (int i = 0; i < 64; i++) {
+            yaml.append("    - '").append(1000 + i).append("'\n");
+        }
+        yaml.append("  rules:\n");
+        yaml.append("    - material: PAPER\n      name: '(?i)forged'\n");
+        yaml.append("    - name: '(?i)shank'\n");
+        matcher = new ContrabandMatcher(BenchServer.config(yaml.toString()));
+
+        Random random = new Random(42);
+        materialHits = new ItemStack[BATCH];
+        materialMisses = new ItemStack[BATCH];
+        customModelDataHits = new ItemStack[BATCH];
+        metaMisses = new ItemStack[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            materialHits[i] = item(CONTRABAND[random.nextInt(CONTRABAND.length)], null);
+            materialMisses[i] = item(HARMLESS[random.nextInt(HARMLESS.length)], null);
+            customModelDataHits[i] = item(HARMLESS[random.nextInt(HARMLESS.length)],
+                    meta(1000 + random.nextInt(64), "Custom item"));
+            metaMisses[i] = item(HARMLESS[random.nextInt(HARMLESS.length)],
+                    meta(5000 + random.nextInt(64), "Plain item " + i));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int materialHit() {
+        return count(materialHits);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int materialMiss() {
+        return count(materialMisses);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int customModelDataHit() {
+        return count(customModelDataHits);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int metaMiss() {
+        return count(metaMisses);
+    }
+
+    private int count(ItemStack[] items) {
+        int found = 0;
+        for (ItemStack item : items) {
+            if (matcher.isContraband(item)) found++;
+        }
+        return found;
+    }
+
+    private static ItemStack item(Material type, ItemMeta meta) {
+        ItemStack item = BenchServer.stub(ItemStack.class);
+        when(item.getType()).thenReturn(type);
+        when(item.hasItemMeta()).thenReturn(meta != null);
+        when(item.getItemMeta()).thenReturn(meta);
+        return item;
+    }
+
+    private static ItemMeta meta(int customModelData, String name) {
+        ItemMeta meta = BenchServer.stub(ItemMeta.class);
+        when(meta.hasCustomModelData()).thenReturn(true);
+        when(meta.getCustomModelData()).thenReturn(customModelData);
+        when(meta.displayName()).thenReturn(Component.text(name));
+        return meta;
+    }
+}
@@ -0,0 +1,153 @@
+package dev.lsdmc.Shakedown.bench;
+
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.internal.platform.WorldGuardPlatform;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import com.sk89q.worldguard.protection.regions.RegionContainer;
+import dev.lsdmc.Shakedown.util.RegionUtils;
+import net.alex9849.arm.AdvancedRegionMarket;
+import net.alex9849.arm.regions.Region;
+import org.bukkit.World;
+import org.mockito.MockedStatic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * ARM/WorldGuard lookups in {@link RegionUtils} against {@code regions}
+ * ARM regions spread over four worlds, each owned by one of 500 players.
+ * The target player owns a few of them and is a member of none, which is
+ * what a typical {@code /shakedown <player>} resolves. Absolute numbers
+ * include mock dispatch; compare runs against each other, not against a
+ * live server.
+ * <p>
+ * Thread scoped because static mocks ({@link BukkitAdapter}) only apply to
+ * the thread that opened them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegionLookupBenchmark {
+    private static final int WORLDS = 4;
+    private static final int PLAYERS = 500;
+
+    @Param({"1000", "10000"})
+    public int regions;
+
+    private MockedStatic<BukkitAdapter> adapter;
+    private UUID target;
+    private String lastRegionId;
+
+    @Setup
+    public void setup() {
+        BenchServer.get();
+        List<UUID> players = new ArrayList<>(PLAYERS);
+        for (int i = 0; i < PLAYERS; i++) {
+            players.add(new UUID(0xBE4C4L, i));
+        }
+        target = players.get(7);
+
+        net.alex9849.arm.regions.RegionManager armManager = BenchServer.stub(net.alex9849.arm.regions.RegionManager.class);
+        Map<String, Region> armRegions = new HashMap<>();
+        Map<UUID, List<Region>> byOwner = new HashMap<>();
+        List<World> worlds = new ArrayList<>(WORLDS);
+        RegionContainer container = BenchServer.stub(RegionContainer.class);
+        adapter = mockStatic(BukkitAdapter.class, withSettings().stubOnly());
+
+        for (int w = 0; w < WORLDS; w++) {
+            World world = BenchServer.stub(World.class);
+            String worldName = "world" + w;
+            when(world.getName()).thenReturn(worldName);
+            worlds.add(world);
+
+            Map<String, ProtectedRegion> wgRegions = new LinkedHashMap<>();
+            for (int i = w; i < regions; i += WORLDS) {
+                String id = "cell_" + i;
+                wgRegions.put(id, new ProtectedCuboidRegion(id,
+                        BlockVector3.at(i * 16, 0, 0), BlockVector3.at(i * 16 + 15, 63, 15)));
+
+                UUID owner = players.get(i % PLAYERS);
+                Region region = mock(Region.class, withSettings().stubOnly().defaultAnswer(RETURNS_DEEP_STUBS));
+                when(region.getRegion().getId()).thenReturn(id);
+                when(region.getOwner()).thenReturn(owner);
+                armRegions.put(worldName + '/' + id, region);
+                byOwner.computeIfAbsent(owner, k -> new ArrayList<>()).add(region);
+                lastRegionId = id;
+            }
+            RegionManager wgManager = BenchServer.stub(RegionManager.class);
+            when(wgManager.getRegions()).thenReturn(wgRegions);
+            when(wgManager.getRegion(anyString())).thenAnswer(invocation -> wgRegions.get(invocation.<String>getArgument(0)));
+
+            com.sk89q.worldedit.world.World weWorld = BenchServer.stub(com.sk89q.worldedit.world.World.class);
+            adapter.when(() -> BukkitAdapter.adapt(world)).thenReturn(weWorld);
+            when(container.get(weWorld)).thenReturn(wgManager);
+        }
+
+        when(armManager.getRegionByNameAndWorld(anyString(), anyString())).thenAnswer(invocation ->
+                armRegions.get(invocation.<String>getArgument(1) + '/' + invocation.<String>getArgument(0)));
+        when(armManager.getRegionsByOwner(any(UUID.class))).thenAnswer(invocation ->
+                byOwner.getOrDefault(invocation.<UUID>getArgument(0), List.of()));
+
+        AdvancedRegionMarket arm = BenchServer.stub(AdvancedRegionMarket.class);
+        when(arm.getRegionManager()).thenReturn(armManager);
+        when(BenchServer.pluginManager().getPlugin("AdvancedRegionMarket")).thenReturn(arm);
+        when(BenchServer.get().getWorlds()).thenReturn(worlds);
+
+        WorldGuardPlatform platform = BenchServer.stub(WorldGuardPlatform.class);
+        when(platform.getRegionContainer()).thenReturn(container);
+        WorldGuard.getInstance().setPlatform(platform);
+    }
+
+    @TearDown
+    public void tearDown() {
+        adapter.close();
+    }
+
+    @Benchmark
+    public List<String> listArmRegionsOwnedBy() {
+        return RegionUtils.listArmRegionsOwnedBy(target);
+    }
+
+    @Benchmark
+    public Optional<UUID> getRegionPrimaryUser() {
+        return RegionUtils.getRegionPrimaryUser(lastRegionId);
+    }
+
+    @Benchmark
+    public Optional<ProtectedRegion> findWorldGuardRegionByIdAnyWorld() {
+        return RegionUtils.findWorldGuardRegionByIdAnyWorld(lastRegionId);
+    }
+}
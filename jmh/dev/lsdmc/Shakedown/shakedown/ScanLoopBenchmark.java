@@ -0,0 +1,136 @@
+package dev.lsdmc.Shakedown.shakedown;
+
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import dev.lsdmc.Shakedown.bench.BenchServer;
+import dev.lsdmc.Shakedown.util.RegionShape;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * The block loop of a shakedown ({@link SnapshotScanner#scanChunk}) over a
+ * synthetic cuboid region of {@code size}x{@code size} columns and 64 blocks
+ * of height. Chunks are stone up to y=31 and air above, so half of the
+ * sections are empty. With {@code seeded} every chunk holds a few contraband
+ * blocks and is walked block by block; without it the palette probe skips
+ * the chunks, which is the common case on a clean cell.
+ * <p>
+ * Snapshots are {@link Proxy} instances over a flat material array rather
+ * than mocks, so the measured time is dominated by the loop itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScanLoopBenchmark {
+    private static final int MIN_Y = 0;
+    private static final int MAX_Y = 63;
+    private static final int WORLD_MIN_HEIGHT = -64;
+    private static final int WORLD_MAX_HEIGHT = 320;
+
+    @Param({"16", "64", "128"})
+    public int size;
+
+    @Param({"true", "false"})
+    public boolean seeded;
+
+    private World world;
+    private ContrabandMatcher matcher;
+    private RegionShape shape;
+    private ChunkSnapshot[] snapshots;
+
+    @Setup
+    public void setup() {
+        matcher = new ContrabandMatcher(BenchServer.config(
+                "contraband:\n  materials:\n    - TNT\n    - WHEAT\n    - SUGAR_CANE\n    - BREWING_STAND\n"));
+        world = BenchServer.stub(World.class);
+        when(world.getName()).thenReturn("bench");
+        when(world.getMinHeight()).thenReturn(WORLD_MIN_HEIGHT);
+        when(world.getMaxHeight()).thenReturn(WORLD_MAX_HEIGHT);
+
+        ProtectedCuboidRegion region = new ProtectedCuboidRegion("bench",
+                BlockVector3.at(0, MIN_Y, 0), BlockVector3.at(size - 1, MAX_Y, size - 1));
+        shape = RegionShape.of(world, region);
+
+        Random random = new Random(42);
+        List<RegionShape.ChunkColumns> chunks = shape.getChunks();
+        snapshots = new ChunkSnapshot[chunks.size()];
+        for (int i = 0; i < snapshots.length; i++) {
+            RegionShape.ChunkColumns columns = chunks.get(i);
+            snapshots[i] = snapshot(columns.getChunkX(), columns.getChunkZ(), seeded ? random : null);
+        }
+    }
+
+    @Benchmark
+    public long scanRegion() {
+        List<RegionShape.ChunkColumns> chunks = shape.getChunks();
+        long found = 0;
+        for (int i = 0; i < snapshots.length; i++) {
+            found += SnapshotScanner.scanChunk(world, snapshots[i], chunks.get(i), matcher, shape.getMinY(),
+                    shape.getMaxY()).getBlockCount();
+        }
+        return found;
+    }
+
+    /**
+     * Builds a chunk of stone below y=32 and air above; if {@code seed} is
+     * given, a handful of contraband blocks are placed at random positions.
+     */
+    private static ChunkSnapshot snapshot(int chunkX, int chunkZ, Random seed) {
+        int height = WORLD_MAX_HEIGHT - WORLD_MIN_HEIGHT;
+        Material[] blocks = new Material[16 * 16 * height];
+        Set<Material> palette = EnumSet.of(Material.AIR);
+        for (int y = WORLD_MIN_HEIGHT; y < WORLD_MAX_HEIGHT; y++) {
+            Material type = y < 32 ? Material.STONE : Material.AIR;
+            if (type != Material.AIR) palette.add(type);
+            for (int i = 0; i < 256; i++) {
+                blocks[((y - WORLD_MIN_HEIGHT) << 8) | i] = type;
+            }
+        }
+        if (seed != null) {
+            for (int i = 0; i < 4; i++) {
+                int y = MIN_Y + seed.nextInt(32);
+                blocks[((y - WORLD_MIN_HEIGHT) << 8) | seed.nextInt(256)] = Material.TNT;
+            }
+            palette.add(Material.TNT);
+        }
+        return (ChunkSnapshot) Proxy.newProxyInstance(ChunkSnapshot.class.getClassLoader(),
+                new Class<?>[]{ChunkSnapshot.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getX" -> chunkX;
+                    case "getZ" -> chunkZ;
+                    case "getWorldName" -> "bench";
+                    case "getBlockType" -> blocks[(((Integer) args[1] - WORLD_MIN_HEIGHT) << 8)
+                            | ((Integer) args[2] << 4) | (Integer) args[0]];
+                    case "contains" -> args[0] instanceof BlockData data && palette.contains(data.getMaterial());
+                    case "isSectionEmpty" -> (Integer) args[0] >= (32 - WORLD_MIN_HEIGHT) >> 4;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "ChunkSnapshot[" + chunkX + "," + chunkZ + "]";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}